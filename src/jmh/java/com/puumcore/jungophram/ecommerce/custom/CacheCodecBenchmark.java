@@ -0,0 +1,151 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import com.puumcore.jungophram.ecommerce.repositories.entities.ShoppingCart;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the compact cache codec, with and without LZ4, against JDK serialization and JSON when writing and reading
+ * the values the caches hold: a product, a catalog page of twenty products and a large order. The payload size of each
+ * is printed when a trial starts.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:50 PM
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    private static final String[] CATEGORIES = {
+            "analgesics", "antibiotics", "supplements", "dermatology", "first aid", "respiratory", "digestive"
+    };
+
+    @Param({"product", "catalog page", "order"})
+    public String payload;
+
+    private final RedisSerializer<Object> jdk = RedisSerializer.java();
+    private final CompactCacheCodec compact = new CompactCacheCodec(false, 1024);
+    private final CompactCacheCodec compactLz4 = new CompactCacheCodec(true, 1024);
+    /**
+     * Without the annotations, which hide the ids from deserialization
+     */
+    private final ObjectMapper json = JsonMapper.builder().findAndAddModules().disable(MapperFeature.USE_ANNOTATIONS).build();
+
+    private Object value;
+    private JavaType jsonType;
+    private byte[] jdkBytes;
+    private byte[] compactBytes;
+    private byte[] compactLz4Bytes;
+    private byte[] jsonBytes;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        final Random random = new Random(42);
+        switch (payload) {
+            case "product" -> {
+                value = product(random, 1);
+                jsonType = json.constructType(Product.class);
+            }
+            case "catalog page" -> {
+                value = new ArrayList<>(IntStream.rangeClosed(1, 20).mapToObj(id -> product(random, id)).toList());
+                jsonType = json.getTypeFactory().constructCollectionType(ArrayList.class, Product.class);
+            }
+            default -> {
+                value = order(random, 200);
+                jsonType = json.constructType(Order.class);
+            }
+        }
+        jdkBytes = jdk.serialize(value);
+        compactBytes = compact.serialize(value);
+        compactLz4Bytes = compactLz4.serialize(value);
+        jsonBytes = json.writeValueAsBytes(value);
+        System.out.printf("%n%s bytes: jdk=%d compact=%d compact+lz4=%d json=%d%n",
+                payload, jdkBytes.length, compactBytes.length, compactLz4Bytes.length, jsonBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jdkWrite() {
+        return jdk.serialize(value);
+    }
+
+    @Benchmark
+    public Object jdkRead() {
+        return jdk.deserialize(jdkBytes);
+    }
+
+    @Benchmark
+    public byte[] compactWrite() {
+        return compact.serialize(value);
+    }
+
+    @Benchmark
+    public Object compactRead() {
+        return compact.deserialize(compactBytes);
+    }
+
+    @Benchmark
+    public byte[] compactLz4Write() {
+        return compactLz4.serialize(value);
+    }
+
+    @Benchmark
+    public Object compactLz4Read() {
+        return compactLz4.deserialize(compactLz4Bytes);
+    }
+
+    @Benchmark
+    public byte[] jsonWrite() throws IOException {
+        return json.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object jsonRead() throws IOException {
+        return json.readValue(jsonBytes, jsonType);
+    }
+
+    private static Product product(final Random random, final long id) {
+        final String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        Product product = new Product("%s item %d".formatted(category, id), "%s product number %d for everyday use".formatted(category, id),
+                1.0 + random.nextInt(5_000), random.nextInt(500), category);
+        product.setProduct_id(id);
+        product.setImageUrl("https://cdn.example.com/products/%d.png".formatted(id));
+        return product;
+    }
+
+    private static Order order(final Random random, final int lines) {
+        final List<ShoppingCart.Item> items = IntStream.range(0, lines)
+                .mapToObj(i -> {
+                    final int quantity = 1 + random.nextInt(5);
+                    return new ShoppingCart.Item((long) random.nextInt(1_000_000), CATEGORIES[i % CATEGORIES.length] + " item " + i, quantity, quantity * 12.5);
+                })
+                .toList();
+        final ShoppingCart cart = new ShoppingCart(UUID.randomUUID(), new ShoppingCart.Customer(42L, "customer42@example.com"), new ArrayList<>(items));
+        final double total = items.stream().mapToDouble(ShoppingCart.Item::totalCost).sum();
+        return new Order(UUID.randomUUID(), cart, total, OrderStatus.PENDING, LocalDateTime.of(2026, 10, 19, 23, 50), null, null);
+    }
+
+}
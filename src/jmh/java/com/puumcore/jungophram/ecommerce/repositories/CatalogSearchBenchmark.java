@@ -0,0 +1,112 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the catalog text index against the legacy regex scan over a synthetic catalog of one million products.
+ * Needs a running database, see the jmh block of the build script.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 3:40 PM
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class CatalogSearchBenchmark {
+
+    private static final int CATALOG_SIZE = 1_000_000;
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] WORDS = {
+            "paracetamol", "ibuprofen", "amoxicillin", "vitamin", "zinc", "syrup", "tablet", "capsule", "cream",
+            "ointment", "drops", "inhaler", "antiseptic", "bandage", "gauze", "glucose", "saline", "lozenge",
+            "antacid", "probiotic", "multivitamin", "iron", "folic", "calcium", "magnesium", "sunscreen"
+    };
+    private static final String[] CATEGORIES = {
+            "analgesics", "antibiotics", "supplements", "dermatology", "first aid", "respiratory", "digestive"
+    };
+
+    @Param({"paracetamol", "vitamin zinc", "first aid"})
+    public String param;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private final PageRequest pageRequest = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "product_id"));
+
+    @Setup(Level.Trial)
+    public void seed() {
+        mongoClient = MongoClients.create(System.getProperty("jmh.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(mongoClient, "jungophram_benchmark");
+
+        IndexOperations indexOperations = mongoTemplate.indexOps(Product.class);
+        new MongoPersistentEntityIndexResolver((MongoMappingContext) mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Product.class)
+                .forEach(indexOperations::ensureIndex);
+
+        long seeded = mongoTemplate.estimatedCount(Product.class);
+        final Random random = new Random(42);
+        while (seeded < CATALOG_SIZE) {
+            final List<Product> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE && seeded < CATALOG_SIZE; i++) {
+                final String name = "%s %s %dmg".formatted(word(random), word(random), 50 * (1 + random.nextInt(20)));
+                final String description = "%s %s %s %s".formatted(word(random), word(random), word(random), word(random));
+                Product product = new Product(name, description, 1.0 + random.nextInt(5_000), random.nextInt(500), CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                product.setProduct_id(++seeded);
+                batch.add(product);
+            }
+            mongoTemplate.insert(batch, Product.class);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public List<Product> textSearch() {
+        return page(Brain.getProductTextQuery(param));
+    }
+
+    @Benchmark
+    public List<Product> regexSearch() {
+        return page(Brain.getProductRegexQuery(param));
+    }
+
+    /**
+     * Mirrors the catalog filter which counts the matches before reading the page
+     */
+    private List<Product> page(final Query query) {
+        query.with(pageRequest);
+        if (mongoTemplate.count(query, Product.class) == 0) {
+            return List.of();
+        }
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    private static String word(final Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+}
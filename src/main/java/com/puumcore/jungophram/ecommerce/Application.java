@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @OpenAPIDefinition(info =
 @Info(
@@ -23,6 +24,7 @@ import org.springframework.cache.annotation.EnableCaching;
         scheme = "bearer"
 )
 @EnableCaching
+@EnableScheduling
 @SpringBootApplication
 public class Application {
 
@@ -0,0 +1,293 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.puumcore.jungophram.ecommerce.custom.CoalescingCache;
+import com.puumcore.jungophram.ecommerce.custom.CoalescingCacheManager;
+import com.puumcore.jungophram.ecommerce.custom.CompactCacheCodec;
+import com.puumcore.jungophram.ecommerce.custom.SingleFlight;
+import com.puumcore.jungophram.ecommerce.custom.TwoTierCache;
+import com.puumcore.jungophram.ecommerce.custom.TwoTierCacheManager;
+import com.puumcore.jungophram.ecommerce.models.constants.CacheCodec;
+import com.puumcore.jungophram.ecommerce.models.objects.IdPage;
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import com.puumcore.jungophram.ecommerce.services.CatalogChanges;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounds every cache region by size or by weight and expires its entries, so regions keyed by page and search param
+ * can not grow with the traffic. The regions record their statistics, which actuator publishes as cache metrics.
+ * With more than one replica the regions move to Redis, with a small local tier in front of them. Concurrent misses
+ * of an entry share one load, and regions can refresh their entries ahead of expiry. Values go to Redis through a
+ * compact binary codec unless JDK serialization is configured.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 8:55 PM
+ */
+
+@Configuration
+@ConfigurationProperties(prefix = "custom.cache")
+@Getter
+@Setter
+public class CacheConfig {
+
+    /**
+     * Applied to any region without its own settings
+     */
+    private Region defaults = new Region();
+    private Map<String, Region> regions = new HashMap<>();
+    private Distributed distributed = new Distributed();
+    private Coalescing coalescing = new Coalescing();
+    private Codec codec = new Codec();
+
+    @Bean
+    @ConditionalOnProperty(prefix = "custom.cache.distributed", name = "enabled", havingValue = "false", matchIfMissing = true)
+    CoalescingCacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(builder(defaults));
+        regions.forEach((name, region) -> cacheManager.registerCustomCache(name, builder(region).build()));
+        return coalescing(cacheManager);
+    }
+
+    /**
+     * The one the cache annotations use, the two tier manager stays a bean of its own for its invalidation listener
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "custom.cache.distributed", name = "enabled", havingValue = "true")
+    CoalescingCacheManager sharedCacheManager(TwoTierCacheManager twoTierCacheManager) {
+        return coalescing(twoTierCacheManager);
+    }
+
+    private CoalescingCacheManager coalescing(final CacheManager cacheManager) {
+        return new CoalescingCacheManager(
+                cacheManager,
+                coalescing.getTimeout(),
+                name -> regions.getOrDefault(name, defaults).getRefreshAhead(),
+                name -> regions.getOrDefault(name, defaults).getTtl(),
+                coalescing.getRefreshThreads()
+        );
+    }
+
+    /**
+     * For coalescing loads that are not cached
+     */
+    @Bean
+    SingleFlight singleFlight() {
+        return new SingleFlight(coalescing.getTimeout());
+    }
+
+    /**
+     * Regions kept in Redis for all replicas, each fronted by a local copy that lives no longer than the local ttl
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "custom.cache.distributed", name = "enabled", havingValue = "true")
+    TwoTierCacheManager twoTierCacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate stringRedisTemplate) {
+        final RedisSerializer<Object> valueSerializer = valueSerializer();
+        final Map<String, RedisCacheConfiguration> sharedRegions = new HashMap<>();
+        regions.forEach((name, region) -> sharedRegions.put(name, shared(region, valueSerializer)));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(shared(defaults, valueSerializer))
+                .withInitialCacheConfigurations(sharedRegions)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        return new TwoTierCacheManager(
+                regions.keySet(),
+                name -> new CaffeineCache(name, builder(local(regions.getOrDefault(name, defaults))).build()),
+                redisCacheManager,
+                stringRedisTemplate,
+                distributed.getChannel()
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "custom.cache.distributed", name = "enabled", havingValue = "true")
+    RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory, TwoTierCacheManager twoTierCacheManager,
+                                                            CatalogChanges catalogChanges) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(twoTierCacheManager, new ChannelTopic(distributed.getChannel()));
+        container.addMessageListener(catalogChanges, new ChannelTopic(distributed.getCatalogChannel()));
+        return container;
+    }
+
+    /**
+     * Publishes the statistics of the local tier, the shared one is measured on the Redis side
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "custom.cache.distributed", name = "enabled", havingValue = "true")
+    CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return (cache, tags) -> cache.getLocal() instanceof CaffeineCache caffeineCache
+                ? new CaffeineCacheMetrics<>(caffeineCache.getNativeCache(), cache.getName(), tags)
+                : null;
+    }
+
+    /**
+     * Publishes the statistics of a local region, regions in front of the two tier ones are published through those
+     */
+    @Bean
+    CacheMeterBinderProvider<CoalescingCache> coalescingCacheMeterBinderProvider() {
+        return (cache, tags) -> cache.getDelegate() instanceof CaffeineCache caffeineCache
+                ? new CaffeineCacheMetrics<>(caffeineCache.getNativeCache(), cache.getName(), tags)
+                : null;
+    }
+
+    private RedisSerializer<Object> valueSerializer() {
+        return codec.getFormat() == CacheCodec.COMPACT
+                ? new CompactCacheCodec(codec.isCompression(), codec.getCompressionThreshold())
+                : RedisSerializer.java();
+    }
+
+    private RedisCacheConfiguration shared(final Region region, final RedisSerializer<Object> valueSerializer) {
+        final RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .prefixCacheNameWith(distributed.getKeyPrefix())
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
+        return region.getTtl() == null ? configuration : configuration.entryTtl(region.getTtl());
+    }
+
+    /**
+     * The region with its ttl capped at the local ttl, which bounds how stale a copy gets if an announcement is missed
+     */
+    private Region local(final Region region) {
+        final Region local = new Region();
+        local.setMaximumSize(region.getMaximumSize());
+        local.setMaximumWeight(region.getMaximumWeight());
+        local.setTtl(region.getTtl() == null || region.getTtl().compareTo(distributed.getLocalTtl()) > 0 ? distributed.getLocalTtl() : region.getTtl());
+        return local;
+    }
+
+    static Caffeine<Object, Object> builder(final Region region) {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder().recordStats();
+        if (region.getMaximumWeight() != null) {
+            caffeine = caffeine.maximumWeight(region.getMaximumWeight())
+                    .weigher((key, value) -> weigh(value));
+        } else if (region.getMaximumSize() != null) {
+            caffeine = caffeine.maximumSize(region.getMaximumSize());
+        }
+        if (region.getTtl() != null) {
+            caffeine = caffeine.expireAfterWrite(region.getTtl());
+        }
+        return caffeine;
+    }
+
+    /**
+     * A page weighs as much as the rows it holds, any other value weighs one
+     */
+    static int weigh(final Object value) {
+        if (value instanceof Paged<?> paged) {
+            return 1 + paged.getData().size();
+        }
+        if (value instanceof IdPage idPage) {
+            return 1 + idPage.ids().length;
+        }
+        if (value instanceof Collection<?> collection) {
+            return 1 + collection.size();
+        }
+        return 1;
+    }
+
+    @Getter
+    @Setter
+    public static class Distributed {
+
+        /**
+         * Keep the regions in Redis as well so every replica shares them
+         */
+        private boolean enabled;
+        /**
+         * Longest a replica serves its local copy, in case it missed the announcement of a change
+         */
+        private Duration localTtl = Duration.ofSeconds(30);
+        private String channel = "cache:invalidation";
+        /**
+         * Where changes to the catalog are announced for the in-memory search structures of the other replicas
+         */
+        private String catalogChannel = "catalog:changes";
+        private String keyPrefix = "cache:";
+
+    }
+
+    @Getter
+    @Setter
+    public static class Coalescing {
+
+        /**
+         * Longest a request waits on a load of the same entry started by another before loading it by itself
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+        /**
+         * Threads refreshing entries ahead of their expiry
+         */
+        private int refreshThreads = 2;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Codec {
+
+        /**
+         * How values are written to Redis, the compact codec also reads values written by JDK serialization
+         */
+        private CacheCodec format = CacheCodec.COMPACT;
+        /**
+         * Compress large values with LZ4
+         */
+        private boolean compression = true;
+        /**
+         * Smallest value in bytes that is compressed
+         */
+        private int compressionThreshold = 1024;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Region {
+
+        /**
+         * Most entries the region holds, ignored when a maximum weight is given
+         */
+        private Long maximumSize;
+        /**
+         * Most rows the region holds, counting every row of a cached page
+         */
+        private Long maximumWeight;
+        /**
+         * How long an entry is served after it was written
+         */
+        private Duration ttl;
+        /**
+         * Age after which an entry that is read is loaded again in the background, ahead of its ttl
+         */
+        private Duration refreshAhead;
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:20 PM
+ */
+
+@Configuration
+@ConfigurationProperties(prefix = "custom.cache.warm-up")
+@Getter
+@Setter
+public class CacheWarmUpConfig {
+
+    private boolean enabled;
+    /**
+     * Leading catalog pages loaded, in the default listing order
+     */
+    private int catalogPages = 5;
+    /**
+     * Same as the default page size of the catalog listing, or the warmed pages are never asked for
+     */
+    private int pageSize = 20;
+    /**
+     * Best selling products loaded into the product cache
+     */
+    private int topSellers = 100;
+    /**
+     * How far back orders count towards the best sellers
+     */
+    private Duration topSellersWindow = Duration.ofDays(30);
+    /**
+     * Loads running at the same time
+     */
+    private int parallelism = 4;
+    /**
+     * Longest the warm-up holds readiness back, the loads still running carry on after it
+     */
+    private Duration timeout = Duration.ofMinutes(2);
+
+}
@@ -0,0 +1,37 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import com.puumcore.jungophram.ecommerce.models.constants.SearchMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 3:04 PM
+ */
+
+@Configuration
+@ConfigurationProperties(prefix = "custom.catalog.search")
+@Getter
+@Setter
+public class CatalogSearchConfig {
+
+    /**
+     * 'text' ranks products by relevance off the catalog text index. 'regex' is the legacy substring scan, kept
+     * only as a fallback since no index can serve it. 'index' answers from the in-process catalog index and only
+     * reads the matched page from the database.
+     */
+    private SearchMode mode;
+    /**
+     * Ascending lower bounds of the price bands counted by the catalog facets. Prices from the last bound up fall in
+     * one open ended band.
+     */
+    private List<Double> priceBands;
+
+}
@@ -0,0 +1,28 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 4:55 PM
+ */
+
+@Configuration
+@ConfigurationProperties(prefix = "custom.catalog.suggest")
+@Getter
+@Setter
+public class CatalogSuggestConfig {
+
+    private boolean enabled;
+    /**
+     * Number of products kept at every node of the suggestion trie, which is also the most a lookup returns
+     */
+    private Integer topK;
+
+}
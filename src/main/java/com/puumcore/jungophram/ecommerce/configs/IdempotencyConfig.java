@@ -0,0 +1,38 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 1:15 PM
+ */
+
+@Configuration
+@ConfigurationProperties(prefix = "custom.idempotency")
+@Getter
+@Setter
+public class IdempotencyConfig {
+
+    /**
+     * Either 'redis' so that every replica sees the same keys or 'memory' when running a single node
+     */
+    private String store;
+    /**
+     * How long a processed request can be replayed for its client
+     */
+    private Duration ttl;
+    /**
+     * How long a request in progress holds its key. It only needs to outlast a checkout, so that a request which
+     * died before saving or releasing its response does not block the client's retries for the whole ttl
+     */
+    private Duration lease;
+
+}
@@ -0,0 +1,48 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 2:05 PM
+ */
+
+@Slf4j
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Multi-document transactions need the database to run as a replica set, a single node one is enough.
+     * <p>
+     * A commit whose outcome is unknown, e.g. after a network error, is committed again rather than having the whole
+     * transaction run again, since the first commit may already have been applied. Committing again is safe.
+     */
+    @Bean
+    MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory, OrderCheckoutConfig orderCheckoutConfig) {
+        return new MongoTransactionManager(mongoDatabaseFactory) {
+            @Override
+            protected void doCommit(MongoTransactionObject transactionObject) throws Exception {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        transactionObject.commitTransaction();
+                        return;
+                    } catch (MongoException e) {
+                        if (attempt > orderCheckoutConfig.getMaxRetries() || !e.hasErrorLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)) {
+                            throw e;
+                        }
+                        log.warn("Retrying a commit with an unknown result, attempt {}", attempt);
+                    }
+                }
+            }
+        };
+    }
+
+}
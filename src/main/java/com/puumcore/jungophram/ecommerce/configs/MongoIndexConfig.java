@@ -0,0 +1,33 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import com.puumcore.jungophram.ecommerce.models.constants.CoverageCheck;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 7:40 PM
+ */
+
+@Configuration
+@ConfigurationProperties(prefix = "custom.mongo.indexes")
+@Getter
+@Setter
+public class MongoIndexConfig {
+
+    /**
+     * Build missing indexes off the startup thread so a large collection does not hold the application back
+     */
+    private boolean background;
+    /**
+     * What to do when a query shape is planned as a collection scan. FAIL always runs in the foreground so the
+     * application does not start.
+     */
+    private CoverageCheck coverageCheck;
+
+}
@@ -0,0 +1,36 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 9:12 AM
+ */
+
+@Configuration
+@ConfigurationProperties(prefix = "custom.orders.archive")
+@Getter
+@Setter
+public class OrderArchiveConfig {
+
+    private boolean enabled;
+    private String cron;
+    /**
+     * How long a completed or canceled order stays in the hot collection before it is archived
+     */
+    private Duration minAge;
+    private Integer batchSize;
+    /**
+     * Upper bound of batches moved per run so that a large backlog is drained over several runs
+     */
+    private Integer maxBatches;
+
+}
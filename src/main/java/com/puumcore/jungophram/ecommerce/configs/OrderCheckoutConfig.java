@@ -0,0 +1,29 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 2:08 PM
+ */
+
+@Configuration
+@ConfigurationProperties(prefix = "custom.orders.checkout")
+@Getter
+@Setter
+public class OrderCheckoutConfig {
+
+    /**
+     * Runs checkout in a multi-document transaction, on by default. Needs the database to be a replica set or a
+     * sharded cluster, checkout falls back to running without one when it is not.
+     */
+    private boolean transactional = true;
+    private Integer maxRetries;
+
+}
@@ -0,0 +1,35 @@
+package com.puumcore.jungophram.ecommerce.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:10 AM
+ */
+
+@Configuration
+@ConfigurationProperties(prefix = "custom.orders.fulfilment")
+@Getter
+@Setter
+public class OrderFulfilmentConfig {
+
+    /**
+     * When enabled, order completions can be queued and handled by the worker pool instead of the request thread
+     */
+    private boolean async;
+    private Integer workers;
+    private Integer batchSize;
+    /**
+     * Tasks claimed by a worker that has not finished within this window are handed to another worker
+     */
+    private Duration claimTimeout;
+
+}
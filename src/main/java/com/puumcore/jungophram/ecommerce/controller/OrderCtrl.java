@@ -4,8 +4,11 @@ import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
 import com.puumcore.jungophram.ecommerce.models.objects.Form;
 import com.puumcore.jungophram.ecommerce.models.objects.GenericRequest;
 import com.puumcore.jungophram.ecommerce.models.objects.GenericResponse;
+import com.puumcore.jungophram.ecommerce.models.objects.OrderSummary;
 import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import com.puumcore.jungophram.ecommerce.repositories.entities.FulfilmentTask;
 import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
+import com.puumcore.jungophram.ecommerce.services.FulfilmentService;
 import com.puumcore.jungophram.ecommerce.services.OrdersService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.NonNull;
@@ -17,7 +20,9 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -35,6 +40,7 @@ import org.springframework.web.bind.annotation.*;
 public class OrderCtrl {
 
     private final OrdersService service;
+    private final FulfilmentService fulfilmentService;
 
     @Operation(
             summary = "Make order",
@@ -48,12 +54,15 @@ public class OrderCtrl {
 
     @Operation(
             summary = "Get order",
-            description = "Fetch order by Id",
+            description = "Fetch order by Id. Answers 304 without a body when If-None-Match holds the current ETag of the order",
             tags = "orders-mgnt"
     )
     @PostMapping(path = "byId", params = "id")
-    GenericResponse<Order> byId(@RequestBody @NonNull final GenericRequest<Form.OrderById> request) {
-        return service.byId(request);
+    ResponseEntity<GenericResponse<Order>> byId(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+            @RequestBody @NonNull final GenericRequest<Form.OrderById> request
+    ) {
+        return service.byId(ifNoneMatch, request);
     }
 
     @Operation(
@@ -66,6 +75,27 @@ public class OrderCtrl {
         return service.updateStatus(OrderStatus.COMPLETED, request);
     }
 
+    @Operation(
+            summary = "Complete order",
+            description = "Queues a pending order for completion by the fulfilment workers and returns a tracking id. Only available when asynchronous fulfilment is enabled",
+            tags = "orders-mgnt"
+    )
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PutMapping("complete/async")
+    GenericResponse<FulfilmentTask> completeAsync(@RequestBody @NonNull final GenericRequest<Form.OrderById> request) {
+        return fulfilmentService.complete(request);
+    }
+
+    @Operation(
+            summary = "Track order completion",
+            description = "Fetch a queued order completion by its tracking id",
+            tags = "orders-mgnt"
+    )
+    @PostMapping("fulfilment/byId")
+    GenericResponse<FulfilmentTask> fulfilmentById(@RequestBody @NonNull final GenericRequest<Form.OrderById> request) {
+        return fulfilmentService.byId(request);
+    }
+
     @Operation(
             summary = "Cancel order",
             description = "Cancels only pending orders",
@@ -82,7 +112,7 @@ public class OrderCtrl {
             tags = "orders-mgnt"
     )
     @PostMapping("filter/byUser")
-    GenericResponse<Paged<Order>> filter(
+    GenericResponse<Paged<OrderSummary>> filter(
             @ParameterObject
             @PageableDefault(size = 20)
             @SortDefault(sort = "orderDate", direction = Sort.Direction.DESC)
@@ -99,7 +129,7 @@ public class OrderCtrl {
             tags = "orders-mgnt"
     )
     @PostMapping("filter")
-    GenericResponse<Paged<Order>> filter(
+    GenericResponse<Paged<OrderSummary>> filter(
             @ParameterObject
             @PageableDefault(size = 20)
             @SortDefault(sort = "orderDate", direction = Sort.Direction.DESC)
@@ -12,9 +12,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -88,28 +91,48 @@ public class StockCtrl {
 
     @Operation(
             summary = "Get stock item",
-            description = "Fetch stock item by Id",
+            description = "Fetch stock item by Id. Answers 304 without a body when If-None-Match holds the current ETag of the item",
             tags = "stock-mgnt"
     )
     @PostMapping(path = "byId", params = "id")
-    GenericResponse<Product> byId(@RequestParam(value = "id") @NonNull Long itemId, @RequestBody @NonNull final GenericRequest<Void> request) {
-        return service.byId(itemId, request);
+    ResponseEntity<GenericResponse<Product>> byId(
+            @RequestParam(value = "id") @NonNull Long itemId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+            @RequestBody @NonNull final GenericRequest<Void> request
+    ) {
+        return service.byId(itemId, ifNoneMatch, request);
     }
 
     @Operation(
             summary = "Filter stock",
-            description = "Enables users to filter through existing stock items even with a desired parameter",
+            description = """
+                    Enables users to filter through existing stock items even with a desired parameter.
+                    Browse by an exact category, a price range and stock left, with or without the parameter.
+                    Set facets to also get the per category and price band counts of the whole search.
+                    Answers 304 without a body when If-None-Match holds the current ETag of the page.
+                    """,
             tags = "stock-mgnt"
     )
     @PostMapping("filter")
-    GenericResponse<Paged<Product>> filter(
+    ResponseEntity<GenericResponse<Paged<Product>>> filter(
             @ParameterObject
             @PageableDefault(size = 20)
             @SortDefault(sort = "product_id", direction = Sort.Direction.DESC)
             Pageable pageable,
-            @RequestBody @NonNull final GenericRequest<Form.Search> request
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+            @RequestBody @NonNull final GenericRequest<Form.CatalogSearch> request
     ) {
-        return service.filter(pageable, request);
+        return service.filter(pageable, ifNoneMatch, request);
+    }
+
+    @Operation(
+            summary = "Suggest stock",
+            description = "Typeahead for the search box. Returns the newest products with a name or category word starting with the given param",
+            tags = "stock-mgnt"
+    )
+    @PostMapping("suggest")
+    GenericResponse<List<Suggestion>> suggest(@RequestBody @NonNull final GenericRequest<Form.Search> request) {
+        return service.suggest(request);
     }
 
 }
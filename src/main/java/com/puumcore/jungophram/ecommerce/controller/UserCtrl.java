@@ -12,9 +12,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
@@ -67,16 +65,18 @@ public class UserCtrl {
 
     @Operation(
             summary = "Filter users",
-            description = "Enables the admin to filter through existing users even with a desired parameter",
+            description = """
+                    Enables the admin to filter through existing users by role, name prefix and email prefix.
+                    Only the page size applies; to get the following page send back the next cursor of the current one.
+                    """,
             tags = "user-mgnt"
     )
     @PostMapping("filter")
     GenericResponse<Paged<Account>> filter(
             @ParameterObject
             @PageableDefault(size = 20)
-            @SortDefault(sort = "user_id", direction = Sort.Direction.DESC)
             Pageable pageable,
-            @RequestBody @NonNull final GenericRequest<Form.Search> request
+            @RequestBody @NonNull final GenericRequest<Form.UserSearch> request
     ) {
         return service.filter(pageable, request);
     }
@@ -8,6 +8,8 @@ import com.puumcore.jungophram.ecommerce.models.objects.GenericResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.NonNull;
 import lombok.val;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
@@ -18,6 +20,7 @@ import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -73,6 +76,17 @@ public abstract class Assistant {
         return genericResponse;
     }
 
+    /**
+     * Answers with a bodiless 304 when the client already holds the given version, the response is only built otherwise
+     *
+     * @param ifNoneMatch the If-None-Match header of the request, if any
+     */
+    protected final <B> ResponseEntity<GenericResponse<B>> buildConditionalResponse(final String ifNoneMatch, @NonNull String etag, @NonNull Supplier<GenericResponse<B>> response) {
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(response.get());
+    }
 
     protected final boolean containsSpecialCharacter(final String param) {
         if (param == null) {
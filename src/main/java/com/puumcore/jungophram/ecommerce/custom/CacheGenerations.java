@@ -0,0 +1,76 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generations of the groups of entries in a region. The entries of a group are keyed under its generation, which is
+ * an entry of the region itself, so evicting it drops every entry of the group at once and leaves the rest of the
+ * region alone. An entry is stored under the generation read before it loaded, so one that loaded across an eviction
+ * lands under the old generation, is never read and ages out of the region.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:40 PM
+ */
+
+@Slf4j
+public final class CacheGenerations {
+
+    private CacheGenerations() {
+    }
+
+    /**
+     * The generation the entries of the group are keyed under, started afresh when the group has none
+     *
+     * @param cache the region, null when there is none
+     * @return null when the region can not be used
+     */
+    public static Long current(final Cache cache, final Object group) {
+        if (cache == null) {
+            return null;
+        }
+        try {
+            final GroupKey groupKey = new GroupKey(group);
+            final Long current = cache.get(groupKey, Long.class);
+            if (current != null) {
+                return current;
+            }
+            final long started = ThreadLocalRandom.current().nextLong();
+            final Cache.ValueWrapper existing = cache.putIfAbsent(groupKey, started);
+            return existing != null && existing.get() instanceof Long other ? other : started;
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the '{}' generation from {}", group, cache.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Drops every entry of the groups
+     *
+     * @param cache the region, null when there is none
+     */
+    public static void evict(final Cache cache, final Object... groups) {
+        if (cache == null) {
+            return;
+        }
+        for (Object group : groups) {
+            try {
+                cache.evict(new GroupKey(group));
+            } catch (RuntimeException e) {
+                log.warn("Failed to evict the '{}' entries from {}", group, cache.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * The generation entry of a group
+     */
+    record GroupKey(Object group) {
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import com.puumcore.jungophram.ecommerce.custom.CompactCacheCodec.Schema;
+import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
+import com.puumcore.jungophram.ecommerce.models.constants.Role;
+import com.puumcore.jungophram.ecommerce.models.objects.CatalogFacets;
+import com.puumcore.jungophram.ecommerce.models.objects.IdPage;
+import com.puumcore.jungophram.ecommerce.models.objects.OrderSummary;
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Account;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import com.puumcore.jungophram.ecommerce.repositories.entities.ShoppingCart;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The types the compact cache codec writes field by field. Type ids and field numbers are part of the stored format:
+ * a new field takes the next free number, a dropped field leaves its number unused, and neither is ever reassigned.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:50 PM
+ */
+
+final class CacheSchemas {
+
+    static final Schema<Product> PRODUCT = new Schema<>(1, Product.class,
+            (product, out) -> {
+                out.field(1, product.getProduct_id());
+                out.field(2, product.getName());
+                out.field(3, product.getDescription());
+                out.field(4, product.getPrice());
+                out.field(5, product.getStockQuantity());
+                out.field(6, product.getCategory());
+                out.field(7, product.getImageUrl());
+            },
+            in -> {
+                final Product product = new Product();
+                product.setProduct_id(in.getLong(1));
+                product.setName(in.getString(2));
+                product.setDescription(in.getString(3));
+                product.setPrice(in.getDouble(4));
+                product.setStockQuantity(in.getInt(5));
+                product.setCategory(in.getString(6));
+                product.setImageUrl(in.getString(7));
+                return product;
+            });
+
+    /**
+     * The password is transient and left out, as with JDK serialization
+     */
+    static final Schema<Account> ACCOUNT = new Schema<>(2, Account.class,
+            (account, out) -> {
+                out.field(1, account.getUser_id());
+                out.field(2, account.getName());
+                out.field(3, account.getEmail());
+                out.field(4, account.getRole());
+            },
+            in -> {
+                final Account account = new Account();
+                account.setUser_id(in.getLong(1));
+                account.setName(in.getString(2));
+                account.setEmail(in.getString(3));
+                account.setRole(in.getEnum(4, Role.class));
+                return account;
+            });
+
+    static final Schema<ShoppingCart> SHOPPING_CART = new Schema<>(3, ShoppingCart.class,
+            (cart, out) -> {
+                out.field(1, cart.getId());
+                out.field(2, cart.getCustomer());
+                out.field(3, cart.getItems());
+            },
+            in -> new ShoppingCart(in.getUuid(1), (ShoppingCart.Customer) in.get(2), in.getList(3)));
+
+    static final Schema<ShoppingCart.Item> CART_ITEM = new Schema<>(4, ShoppingCart.Item.class,
+            (item, out) -> {
+                out.field(1, item.id());
+                out.field(2, item.name());
+                out.field(3, item.quantity());
+                out.field(4, item.totalCost());
+            },
+            in -> new ShoppingCart.Item(in.getLong(1), in.getString(2), in.getInt(3), in.getDouble(4)));
+
+    static final Schema<ShoppingCart.Customer> CART_CUSTOMER = new Schema<>(5, ShoppingCart.Customer.class,
+            (customer, out) -> {
+                out.field(1, customer.id());
+                out.field(2, customer.email());
+            },
+            in -> new ShoppingCart.Customer(in.getLong(1), in.getString(2)));
+
+    static final Schema<Order> ORDER = new Schema<>(6, Order.class,
+            (order, out) -> {
+                out.field(1, order.getId());
+                out.field(2, order.getCart());
+                out.field(3, order.getTotalAmount());
+                out.field(4, order.getOrderStatus());
+                out.field(5, order.getOrderDate());
+                out.field(6, order.getClosedAt());
+                out.field(7, order.getStockDeducted());
+            },
+            in -> new Order(in.getUuid(1), (ShoppingCart) in.get(2), in.getDouble(3), in.getEnum(4, OrderStatus.class), in.getDateTime(5), in.getDateTime(6), (Boolean) in.get(7)));
+
+    static final Schema<OrderSummary> ORDER_SUMMARY = new Schema<>(7, OrderSummary.class,
+            (summary, out) -> {
+                out.field(1, summary.id());
+                out.field(2, summary.orderDate());
+                out.field(3, summary.orderStatus());
+                out.field(4, summary.totalAmount());
+                out.field(5, summary.lines());
+            },
+            in -> new OrderSummary(in.getUuid(1), in.getDateTime(2), in.getEnum(3, OrderStatus.class), in.getDouble(4), in.getInt(5)));
+
+    static final Schema<IdPage> ID_PAGE = new Schema<>(8, IdPage.class,
+            (page, out) -> {
+                out.field(1, page.ids());
+                out.field(2, page.totalPages());
+                out.field(3, page.hasNext());
+                out.field(4, page.next());
+            },
+            in -> new IdPage(Objects.requireNonNullElse((long[]) in.get(1), new long[0]), in.getInt(2), in.getBoolean(3), in.getString(4)));
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static final Schema<Paged> PAGED = new Schema<>(9, Paged.class,
+            (paged, out) -> {
+                out.field(1, paged.getTotalPages());
+                out.field(2, paged.isHasNext());
+                out.field(3, paged.getNext());
+                out.field(4, paged.getData());
+                out.field(5, paged.getEtag());
+            },
+            in -> {
+                final Paged paged = new Paged<>(in.getInt(1));
+                paged.setHasNext(in.getBoolean(2));
+                paged.setNext(in.getString(3));
+                paged.setData(in.getList(4));
+                paged.setEtag(in.getString(5));
+                return paged;
+            });
+
+    static final Schema<CatalogFacets> CATALOG_FACETS = new Schema<>(10, CatalogFacets.class,
+            (facets, out) -> {
+                out.field(1, facets.categories());
+                out.field(2, facets.priceBands());
+            },
+            in -> new CatalogFacets(in.getList(1), in.getList(2)));
+
+    static final Schema<CatalogFacets.FacetCount> FACET_COUNT = new Schema<>(11, CatalogFacets.FacetCount.class,
+            (facetCount, out) -> {
+                out.field(1, facetCount.value());
+                out.field(2, facetCount.count());
+            },
+            in -> new CatalogFacets.FacetCount(in.getString(1), Objects.requireNonNullElse(in.getLong(2), 0L)));
+
+    static final Schema<CatalogFacets.PriceBand> PRICE_BAND = new Schema<>(12, CatalogFacets.PriceBand.class,
+            (priceBand, out) -> {
+                out.field(1, priceBand.from());
+                out.field(2, priceBand.to());
+                out.field(3, priceBand.count());
+            },
+            in -> new CatalogFacets.PriceBand(in.getDouble(1), in.getDouble(2), Objects.requireNonNullElse(in.getLong(3), 0L)));
+
+    private CacheSchemas() {
+    }
+
+    static List<Schema<?>> all() {
+        return List.of(PRODUCT, ACCOUNT, SHOPPING_CART, CART_ITEM, CART_CUSTOMER, ORDER, ORDER_SUMMARY, ID_PAGE, PAGED,
+                CATALOG_FACETS, FACET_COUNT, PRICE_BAND);
+    }
+
+}
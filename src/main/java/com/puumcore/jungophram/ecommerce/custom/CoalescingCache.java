@@ -0,0 +1,192 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache region whose misses are loaded once however many callers miss together, for methods cached with
+ * {@code @Cacheable(sync = true)}. An entry read after its refresh-ahead age is loaded again in the background while the
+ * old value is still served, so a popular entry is replaced before it expires rather than missed by everyone at once.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 10:50 PM
+ */
+
+@Slf4j
+public class CoalescingCache implements Cache {
+
+    private final Cache delegate;
+    private final SingleFlight singleFlight;
+    private final Duration refreshAhead;
+    private final Executor refresher;
+    /**
+     * When this replica last wrote each entry, only kept when entries are refreshed ahead
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Long> writtenAt;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    /**
+     * Moves on with every eviction, so a refresh that started before one does not put back what it evicted
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param refreshAhead age after which a read entry is refreshed, null to never refresh ahead
+     * @param ttl          how long the region keeps an entry, which bounds how long its write time is kept
+     */
+    public CoalescingCache(final Cache delegate, final SingleFlight singleFlight, final Duration refreshAhead,
+                           final Duration ttl, final Executor refresher) {
+        this.delegate = delegate;
+        this.singleFlight = singleFlight;
+        this.refreshAhead = refreshAhead;
+        this.refresher = refresher;
+        this.writtenAt = refreshAhead == null ? null : Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(ttl == null ? refreshAhead.multipliedBy(2) : ttl)
+                .build();
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        final ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            refreshIfDue(key, valueLoader);
+            return (T) cached.get();
+        }
+        try {
+            return singleFlight.run(key, () -> {
+                // taken before the load, so a value read before an eviction that lands meanwhile is not cached
+                final long startedAt = generation.get();
+                // a caller that missed just as the shared load finished finds the value here
+                final ValueWrapper loaded = delegate.get(key);
+                if (loaded != null) {
+                    return (T) loaded.get();
+                }
+                final T value = valueLoader.call();
+                if (startedAt == generation.get()) {
+                    put(key, value);
+                }
+                return value;
+            });
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private void refreshIfDue(final Object key, final Callable<?> valueLoader) {
+        if (writtenAt == null) {
+            return;
+        }
+        final Long written = writtenAt.getIfPresent(key);
+        if (written == null || System.nanoTime() - written < refreshAhead.toNanos() || !refreshing.add(key)) {
+            return;
+        }
+        final long startedAt = generation.get();
+        try {
+            refresher.execute(() -> {
+                try {
+                    final Object value = singleFlight.run(key, valueLoader);
+                    if (startedAt == generation.get()) {
+                        put(key, value);
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to refresh '{}' in {} ahead of its expiry", key, getName(), e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        if (writtenAt != null) {
+            writtenAt.put(key, System.nanoTime());
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        final ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null && writtenAt != null) {
+            writtenAt.put(key, System.nanoTime());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        generation.incrementAndGet();
+        delegate.evict(key);
+        if (writtenAt != null) {
+            writtenAt.invalidate(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        generation.incrementAndGet();
+        if (writtenAt != null) {
+            writtenAt.invalidate(key);
+        }
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        generation.incrementAndGet();
+        delegate.clear();
+        if (writtenAt != null) {
+            writtenAt.invalidateAll();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        generation.incrementAndGet();
+        if (writtenAt != null) {
+            writtenAt.invalidateAll();
+        }
+        return delegate.invalidate();
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Hands out the regions of another cache manager as {@link CoalescingCache}s, which share a small pool of threads for
+ * refreshing entries ahead of their expiry
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 10:50 PM
+ */
+
+public class CoalescingCacheManager implements CacheManager, DisposableBean {
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    private final CacheManager delegate;
+    private final Duration timeout;
+    private final Function<String, Duration> refreshAhead;
+    private final Function<String, Duration> ttl;
+    private final ThreadPoolExecutor refresher;
+
+    /**
+     * @param timeout      longest a caller waits on a load started by another before loading by itself
+     * @param refreshAhead refresh-ahead age of a region, null for none
+     * @param ttl          ttl of a region, null for none
+     */
+    public CoalescingCacheManager(final CacheManager delegate, final Duration timeout, final Function<String, Duration> refreshAhead,
+                                  final Function<String, Duration> ttl, final int refreshThreads) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.refreshAhead = refreshAhead;
+        this.ttl = ttl;
+        this.refresher = new ThreadPoolExecutor(
+                refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(1000),
+                new CustomizableThreadFactory("cache-refresh-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        final Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        final Cache region = delegate.getCache(name);
+        if (region == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new CoalescingCache(region, new SingleFlight(timeout), refreshAhead.apply(key), ttl.apply(key), refresher));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+}
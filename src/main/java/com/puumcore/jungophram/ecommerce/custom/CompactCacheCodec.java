@@ -0,0 +1,453 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Writes cached values in a compact binary format instead of JDK serialization. Each registered type is written as
+ * its type id followed by its numbered fields, every field value carrying its own tag, so a reader skips the fields it
+ * does not know and leaves the ones it does not find unset. Fields may be added or dropped that way, but a number is
+ * never given to another field. Values holding a type that is not registered are written with JDK serialization, and
+ * entries written by JDK serialization before the switch are still read. Payloads above the threshold are compressed
+ * with LZ4 when that makes them smaller.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:50 PM
+ */
+
+public class CompactCacheCodec implements RedisSerializer<Object> {
+
+    /**
+     * First byte of a JDK serialization stream, never used as a format marker
+     */
+    private static final byte JDK = (byte) 0xAC;
+    private static final byte COMPACT = 0x01;
+    private static final byte COMPACT_LZ4 = 0x02;
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING = 6;
+    private static final int UNIQUE_ID = 7;
+    private static final int DATE_TIME = 8;
+    private static final int LIST = 9;
+    private static final int LONG_ARRAY = 10;
+    private static final int OBJECT = 11;
+    private static final int MAP = 12;
+
+    /**
+     * Closes the fields of an object, so field numbers start at one
+     */
+    private static final int END = 0;
+
+    private final Map<Class<?>, Schema<?>> schemasByType = new HashMap<>();
+    private final Map<Integer, Schema<?>> schemasById = new HashMap<>();
+    private final RedisSerializer<Object> fallback = RedisSerializer.java();
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+    private final int compressionThreshold;
+
+    /**
+     * @param compression          compress payloads with LZ4
+     * @param compressionThreshold smallest payload in bytes worth compressing
+     */
+    public CompactCacheCodec(final boolean compression, final int compressionThreshold) {
+        this(CacheSchemas.all(), compression, compressionThreshold);
+    }
+
+    CompactCacheCodec(final Collection<Schema<?>> schemas, final boolean compression, final int compressionThreshold) {
+        schemas.forEach(schema -> {
+            if (schemasById.put(schema.typeId(), schema) != null) {
+                throw new IllegalArgumentException("Type id " + schema.typeId() + " is registered twice");
+            }
+            schemasByType.put(schema.type(), schema);
+        });
+        final LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+        this.compressor = compression ? lz4Factory.fastCompressor() : null;
+        this.decompressor = lz4Factory.fastDecompressor();
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        final Output output = new Output(256);
+        output.writeByte(COMPACT);
+        try {
+            writeValue(output, value);
+        } catch (Unsupported e) {
+            return fallback.serialize(value);
+        }
+        if (compressor == null || output.size < compressionThreshold) {
+            return output.toByteArray();
+        }
+        return compress(output);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return switch (bytes[0]) {
+                case JDK -> fallback.deserialize(bytes);
+                case COMPACT -> readValue(new Input(bytes, 1));
+                case COMPACT_LZ4 -> readValue(new Input(decompress(bytes), 0));
+                default -> throw new SerializationException("Unknown cache value format " + bytes[0]);
+            };
+        } catch (SerializationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new SerializationException("Failed to read a cached value", e);
+        }
+    }
+
+    private byte[] compress(final Output output) {
+        final int length = output.size - 1;
+        final Output compressed = new Output(1 + 5 + compressor.maxCompressedLength(length));
+        compressed.writeByte(COMPACT_LZ4);
+        compressed.writeVarInt(length);
+        compressed.size += compressor.compress(output.bytes, 1, length, compressed.bytes, compressed.size, compressed.bytes.length - compressed.size);
+        return compressed.size < output.size ? compressed.toByteArray() : output.toByteArray();
+    }
+
+    private byte[] decompress(final byte[] bytes) {
+        final Input input = new Input(bytes, 1);
+        final byte[] decompressed = new byte[input.readVarInt()];
+        decompressor.decompress(bytes, input.position, decompressed, 0, decompressed.length);
+        return decompressed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeValue(final Output output, final Object value) {
+        if (value == null) {
+            output.writeVarInt(NULL);
+        } else if (value instanceof Boolean flag) {
+            output.writeVarInt(flag ? TRUE : FALSE);
+        } else if (value instanceof Integer number) {
+            output.writeVarInt(INT);
+            output.writeVarLong(number);
+        } else if (value instanceof Long number) {
+            output.writeVarInt(LONG);
+            output.writeVarLong(number);
+        } else if (value instanceof Double number) {
+            output.writeVarInt(DOUBLE);
+            output.writeLong(Double.doubleToLongBits(number));
+        } else if (value instanceof String text) {
+            output.writeVarInt(STRING);
+            output.writeString(text);
+        } else if (value instanceof Enum<?> constant) {
+            // by name so constants can be reordered, the schema turns it back into the constant
+            output.writeVarInt(STRING);
+            output.writeString(constant.name());
+        } else if (value instanceof UUID uuid) {
+            output.writeVarInt(UNIQUE_ID);
+            output.writeLong(uuid.getMostSignificantBits());
+            output.writeLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof LocalDateTime dateTime) {
+            output.writeVarInt(DATE_TIME);
+            output.writeVarLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            output.writeVarLong(dateTime.getNano());
+        } else if (value instanceof long[] numbers) {
+            output.writeVarInt(LONG_ARRAY);
+            output.writeVarInt(numbers.length);
+            for (long number : numbers) {
+                output.writeVarLong(number);
+            }
+        } else if (value instanceof List<?> list) {
+            output.writeVarInt(LIST);
+            output.writeVarInt(list.size());
+            list.forEach(item -> writeValue(output, item));
+        } else if (value instanceof Map<?, ?> map) {
+            output.writeVarInt(MAP);
+            output.writeVarInt(map.size());
+            map.forEach((key, item) -> {
+                writeValue(output, key);
+                writeValue(output, item);
+            });
+        } else {
+            final Schema<Object> schema = (Schema<Object>) schemasByType.get(value.getClass());
+            if (schema == null) {
+                throw new Unsupported();
+            }
+            output.writeVarInt(OBJECT);
+            output.writeVarInt(schema.typeId());
+            schema.writer().accept(value, (number, field) -> {
+                if (number <= END) {
+                    throw new IllegalArgumentException("Field numbers of " + schema.type().getName() + " start at 1");
+                }
+                if (field != null) {
+                    output.writeVarInt(number);
+                    writeValue(output, field);
+                }
+            });
+            output.writeVarInt(END);
+        }
+    }
+
+    private Object readValue(final Input input) {
+        final int tag = input.readVarInt();
+        return switch (tag) {
+            case NULL -> null;
+            case FALSE -> false;
+            case TRUE -> true;
+            case INT -> (int) input.readVarLong();
+            case LONG -> input.readVarLong();
+            case DOUBLE -> Double.longBitsToDouble(input.readLong());
+            case STRING -> input.readString();
+            case UNIQUE_ID -> new UUID(input.readLong(), input.readLong());
+            case DATE_TIME -> LocalDateTime.ofEpochSecond(input.readVarLong(), (int) input.readVarLong(), ZoneOffset.UTC);
+            case LONG_ARRAY -> {
+                final long[] numbers = new long[input.readVarInt()];
+                for (int i = 0; i < numbers.length; i++) {
+                    numbers[i] = input.readVarLong();
+                }
+                yield numbers;
+            }
+            case LIST -> {
+                final int size = input.readVarInt();
+                final List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(input));
+                }
+                yield list;
+            }
+            case MAP -> {
+                final int size = input.readVarInt();
+                final Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(input), readValue(input));
+                }
+                yield map;
+            }
+            case OBJECT -> {
+                final int typeId = input.readVarInt();
+                final Schema<?> schema = schemasById.get(typeId);
+                if (schema == null) {
+                    throw new SerializationException("Unknown cached type id " + typeId);
+                }
+                final Fields fields = new Fields();
+                for (int number = input.readVarInt(); number != END; number = input.readVarInt()) {
+                    fields.put(number, readValue(input));
+                }
+                yield schema.reader().apply(fields);
+            }
+            default -> throw new SerializationException("Unknown cached value tag " + tag);
+        };
+    }
+
+    /**
+     * How a type is written and read back
+     *
+     * @param typeId written in place of the class name, never given to another type
+     * @param writer passes every field with its number, null fields are left out
+     * @param reader builds the value from the fields found, whatever is missing is null
+     */
+    public record Schema<T>(int typeId, Class<T> type, BiConsumer<T, FieldWriter> writer, Function<Fields, T> reader) {
+    }
+
+    @FunctionalInterface
+    public interface FieldWriter {
+
+        void field(int number, Object value);
+
+    }
+
+    /**
+     * The fields of a value as read, numbers widen so a field can grow from an int to a long
+     */
+    public static final class Fields {
+
+        private Object[] values = new Object[8];
+
+        void put(final int number, final Object value) {
+            if (number >= values.length) {
+                values = Arrays.copyOf(values, Math.max(number + 1, values.length * 2));
+            }
+            values[number] = value;
+        }
+
+        public Object get(final int number) {
+            return number < values.length ? values[number] : null;
+        }
+
+        public String getString(final int number) {
+            return (String) get(number);
+        }
+
+        public Long getLong(final int number) {
+            return get(number) instanceof Number value ? value.longValue() : null;
+        }
+
+        public Integer getInt(final int number) {
+            return get(number) instanceof Number value ? value.intValue() : null;
+        }
+
+        public Double getDouble(final int number) {
+            return get(number) instanceof Number value ? value.doubleValue() : null;
+        }
+
+        public boolean getBoolean(final int number) {
+            return Boolean.TRUE.equals(get(number));
+        }
+
+        public UUID getUuid(final int number) {
+            return (UUID) get(number);
+        }
+
+        public LocalDateTime getDateTime(final int number) {
+            return (LocalDateTime) get(number);
+        }
+
+        public <E extends Enum<E>> E getEnum(final int number, final Class<E> type) {
+            final String name = getString(number);
+            return name == null ? null : Enum.valueOf(type, name);
+        }
+
+        @SuppressWarnings("unchecked")
+        public <E> List<E> getList(final int number) {
+            final Object value = get(number);
+            return value == null ? new ArrayList<>() : (List<E>) value;
+        }
+
+    }
+
+    /**
+     * Thrown while writing a value that holds an unregistered type, which is then written by the fallback
+     */
+    private static final class Unsupported extends RuntimeException {
+
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Output {
+
+        private byte[] bytes;
+        private int size;
+
+        Output(final int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private void ensure(final int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + extra, bytes.length * 2));
+            }
+        }
+
+        void writeByte(final byte value) {
+            ensure(1);
+            bytes[size++] = value;
+        }
+
+        void writeVarInt(final int value) {
+            writeUnsigned(value & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Zigzag encoded so small negative numbers stay short
+         */
+        void writeVarLong(final long value) {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        private void writeUnsigned(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(final long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(final String value) {
+            final byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+    }
+
+    private static final class Input {
+
+        private final byte[] bytes;
+        private int position;
+
+        Input(final byte[] bytes, final int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int readVarInt() {
+            return (int) readUnsigned();
+        }
+
+        long readVarLong() {
+            final long value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long readUnsigned() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte next = bytes[position++];
+                value |= (long) (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed number in a cached value");
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            final int length = readVarInt();
+            final String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+    }
+
+}
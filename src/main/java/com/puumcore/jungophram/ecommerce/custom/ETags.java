@@ -0,0 +1,71 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Weak entity tags made from a hash of the content. They are weak because the response envelope carries the request
+ * id and a timestamp, so only the content behind the tag is the same from one response to the next.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/20/2026 12:30 AM
+ */
+
+public final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    /**
+     * @param parts hashed by their text, which for the entities and records lists every field
+     */
+    public static String of(final Object... parts) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (Object part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return WEAK_PREFIX + "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    public static String of(final Paged<?> paged) {
+        return of(paged.getTotalPages(), paged.isHasNext(), paged.getNext(), paged.getData());
+    }
+
+    /**
+     * @param ifNoneMatch the tags the client holds, comma separated, or {@code *}
+     * @return whether the client holds the given tag, compared weakly as If-None-Match requires
+     */
+    public static boolean matches(final String ifNoneMatch, final String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank() || etag == null) {
+            return false;
+        }
+        final String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            final String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(final String etag) {
+        return etag.startsWith(WEAK_PREFIX) ? etag.substring(WEAK_PREFIX.length()) : etag;
+    }
+
+}
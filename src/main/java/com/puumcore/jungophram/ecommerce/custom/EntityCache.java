@@ -0,0 +1,133 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Entities cached one per entry under their id, in front of a loader that fetches every miss of a batch at once.
+ * Absent ids are not cached, so a new entity is seen as soon as it is written. Writes replace the entry, loads only fill
+ * an empty one: a load that read the store before a write and finished after it would otherwise put the old entity back
+ * over the written one. A delete racing a load can still leave the deleted entity cached until its entry expires. A
+ * cache that can not be read or written is passed through to the loader.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 9:55 PM
+ */
+
+@Slf4j
+public class EntityCache<K, V> {
+
+    private final Cache cache;
+    private final Function<V, K> idOf;
+    private final Class<V> type;
+
+    /**
+     * @param cache the region, null to always load
+     */
+    public EntityCache(final Cache cache, final Class<V> type, final Function<V, K> idOf) {
+        this.cache = cache;
+        this.type = type;
+        this.idOf = idOf;
+    }
+
+    public Optional<V> get(final K id, final Function<K, Optional<V>> loader) {
+        final V cached = read(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return loader.apply(id).map(this::fill);
+    }
+
+    /**
+     * @param loader loads the given ids in one call, ids it does not return are taken as absent
+     * @return the entities found, in the order of the ids
+     */
+    public List<V> getAll(final Collection<K> ids, final Function<Collection<K>, List<V>> loader) {
+        final Map<K, V> found = new LinkedHashMap<>();
+        final Set<K> misses = new LinkedHashSet<>();
+        for (K id : ids) {
+            if (found.containsKey(id) || misses.contains(id)) {
+                continue;
+            }
+            final V cached = read(id);
+            if (cached == null) {
+                misses.add(id);
+            } else {
+                found.put(id, cached);
+            }
+        }
+        if (!misses.isEmpty()) {
+            loader.apply(misses).forEach(value -> found.put(idOf.apply(value), fill(value)));
+        }
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public K idOf(final V value) {
+        return idOf.apply(value);
+    }
+
+    public void put(final V value) {
+        if (cache == null || value == null) {
+            return;
+        }
+        try {
+            cache.put(idOf.apply(value), value);
+        } catch (RuntimeException e) {
+            log.warn("Failed to cache entity {} in {}", idOf.apply(value), cache.getName(), e);
+        }
+    }
+
+    /**
+     * Caches a loaded entity unless a write got there first
+     *
+     * @return the entity now cached, the written one when a write won
+     */
+    public V fill(final V value) {
+        if (cache == null || value == null) {
+            return value;
+        }
+        try {
+            final Cache.ValueWrapper existing = cache.putIfAbsent(idOf.apply(value), value);
+            if (existing != null && type.isInstance(existing.get())) {
+                return type.cast(existing.get());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to cache entity {} in {}", idOf.apply(value), cache.getName(), e);
+        }
+        return value;
+    }
+
+    public void evict(final K id) {
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.evict(id);
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict entity {} from {}", id, cache.getName(), e);
+        }
+    }
+
+    private V read(final K id) {
+        if (cache == null) {
+            return null;
+        }
+        try {
+            return cache.get(id, type);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read entity {} from {}", id, cache.getName(), e);
+            return null;
+        }
+    }
+
+}
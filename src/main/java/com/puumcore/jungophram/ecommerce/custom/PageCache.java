@@ -0,0 +1,142 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import com.puumcore.jungophram.ecommerce.models.objects.IdPage;
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Listing pages cached as the ids of their rows, with the rows themselves held once each in an {@link EntityCache}.
+ * A page is put back together from the entity cache, so a changed row is seen on every page holding it. A page
+ * holding a row that is gone is run again.
+ * <p>
+ * Pages are held in groups, such as all the pages of one customer, and each page is an entry of its own keyed under
+ * the {@link CacheGenerations generation} of its group. A write evicts the generation of the groups it can change,
+ * which drops their pages at once and leaves the rest of the region alone.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 10:20 PM
+ */
+
+@Slf4j
+public class PageCache<K, V> {
+
+    private final Cache cache;
+    private final EntityCache<K, V> entities;
+    private final Function<List<K>, long[]> pack;
+    private final Function<long[], List<K>> unpack;
+
+    private PageCache(final Cache cache, final EntityCache<K, V> entities,
+                      final Function<List<K>, long[]> pack, final Function<long[], List<K>> unpack) {
+        this.cache = cache;
+        this.entities = entities;
+        this.pack = pack;
+        this.unpack = unpack;
+    }
+
+    /**
+     * @param cache the region of the pages, null to always load
+     */
+    public static <V> PageCache<Long, V> byLongId(final Cache cache, final EntityCache<Long, V> entities) {
+        return new PageCache<>(cache, entities,
+                ids -> ids.stream().mapToLong(Long::longValue).toArray(),
+                ids -> Arrays.stream(ids).boxed().toList());
+    }
+
+    /**
+     * @param cache the region of the pages, null to always load
+     */
+    public static <V> PageCache<UUID, V> byUuid(final Cache cache, final EntityCache<UUID, V> entities) {
+        return new PageCache<>(cache, entities,
+                ids -> {
+                    final long[] packed = new long[ids.size() * 2];
+                    for (int i = 0; i < ids.size(); i++) {
+                        packed[i * 2] = ids.get(i).getMostSignificantBits();
+                        packed[i * 2 + 1] = ids.get(i).getLeastSignificantBits();
+                    }
+                    return packed;
+                },
+                ids -> {
+                    final List<UUID> unpacked = new ArrayList<>(ids.length / 2);
+                    for (int i = 0; i + 1 < ids.length; i += 2) {
+                        unpacked.add(new UUID(ids[i], ids[i + 1]));
+                    }
+                    return unpacked;
+                });
+    }
+
+    /**
+     * @param group        the group the page is evicted with
+     * @param key          the page, as the method arguments it is listed by
+     * @param entityLoader loads the rows the entity cache misses, in one call
+     * @param pageLoader   runs the listing when the page is not cached or can not be put back together
+     */
+    public Optional<Paged<V>> get(final Object group, final Object key, final Function<Collection<K>, List<V>> entityLoader,
+                                  final Supplier<Optional<Paged<V>>> pageLoader) {
+        final Long generation = CacheGenerations.current(cache, group);
+        final PageKey pageKey = generation == null ? null : new PageKey(group, generation, key);
+        final IdPage idPage = pageKey == null ? null : read(pageKey);
+        if (idPage != null) {
+            final List<K> ids = unpack.apply(idPage.ids());
+            final List<V> rows = entities.getAll(ids, entityLoader);
+            if (rows.size() == ids.stream().distinct().count()) {
+                Paged<V> paged = new Paged<>(idPage.totalPages());
+                paged.setHasNext(idPage.hasNext());
+                paged.setNext(idPage.next());
+                paged.getData().addAll(rows);
+                return Optional.of(paged);
+            }
+        }
+        final Optional<Paged<V>> loaded = pageLoader.get();
+        loaded.ifPresent(paged -> {
+            paged.getData().forEach(entities::fill);
+            if (pageKey != null) {
+                write(pageKey, new IdPage(
+                        pack.apply(paged.getData().stream().map(entities::idOf).toList()),
+                        paged.getTotalPages(),
+                        paged.isHasNext(),
+                        paged.getNext()
+                ));
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Drops every page of the groups
+     */
+    public void evict(final Object... groups) {
+        CacheGenerations.evict(cache, groups);
+    }
+
+    private IdPage read(final PageKey pageKey) {
+        try {
+            return cache.get(pageKey, IdPage.class);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the '{}' page from {}", pageKey, cache.getName(), e);
+            return null;
+        }
+    }
+
+    private void write(final PageKey pageKey, final IdPage idPage) {
+        try {
+            cache.put(pageKey, idPage);
+        } catch (RuntimeException e) {
+            log.warn("Failed to cache the '{}' page in {}", pageKey, cache.getName(), e);
+        }
+    }
+
+    /**
+     * A page of a group, under the generation of the group it loaded in
+     */
+    record PageKey(Object group, long generation, Object key) {
+    }
+
+}
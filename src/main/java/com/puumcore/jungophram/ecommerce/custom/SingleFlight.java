@@ -0,0 +1,67 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Lets concurrent loads of the same key share one call. The first caller runs the load, the others wait for its
+ * result. A caller that has waited longer than the timeout stops waiting and runs the load itself, so a stuck load can
+ * hold callers up for no longer than that.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 10:50 PM
+ */
+
+@Slf4j
+public class SingleFlight {
+
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+
+    public SingleFlight(final Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @throws Exception whatever the load threw, to every caller that shared it
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V run(final Object key, final Callable<V> loader) throws Exception {
+        final CompletableFuture<Object> own = new CompletableFuture<>();
+        final CompletableFuture<Object> shared = inFlight.putIfAbsent(key, own);
+        if (shared == null) {
+            try {
+                final V value = loader.call();
+                own.complete(value);
+                return value;
+            } catch (Exception e) {
+                own.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, own);
+            }
+        }
+        try {
+            return (V) shared.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Gave up waiting {} on the load of '{}', loading it again", timeout, key);
+            return loader.call();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * @return whether a load of the key is running
+     */
+    public boolean isLoading(final Object key) {
+        return inFlight.containsKey(key);
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * A cache region held in two tiers: a small local cache in front of the shared one in Redis. Reads fill the local
+ * tier from the shared one, writes go to both and are announced so the other replicas drop their local copy. The local
+ * tier is keyed by the key itself, so two keys that print the same never share a local entry. When
+ * Redis can not be reached the region carries on with the local tier alone.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 9:20 PM
+ */
+
+@Slf4j
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final Cache local;
+    private final Cache shared;
+    /**
+     * Announces a changed key to the other replicas, a null key stands for the whole region
+     */
+    private final BiConsumer<String, String> announcer;
+
+    public TwoTierCache(final String name, final Cache local, final Cache shared, final BiConsumer<String, String> announcer) {
+        this.name = name;
+        this.local = local;
+        this.shared = shared;
+        this.announcer = announcer;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    public Cache getLocal() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper valueWrapper = local.get(key);
+        if (valueWrapper != null) {
+            return valueWrapper;
+        }
+        try {
+            valueWrapper = shared.get(key);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read '{}' from the shared {} cache", key, name, e);
+            return null;
+        }
+        if (valueWrapper != null) {
+            local.put(key, valueWrapper.get());
+        }
+        return valueWrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        final ValueWrapper valueWrapper = get(key);
+        final Object value = valueWrapper == null ? null : valueWrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        final ValueWrapper valueWrapper = get(key);
+        if (valueWrapper != null) {
+            return (T) valueWrapper.get();
+        }
+        final T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        final String localKey = TwoTierCacheManager.keyOf(key);
+        try {
+            shared.put(key, value);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write '{}' to the shared {} cache", localKey, name, e);
+        }
+        local.put(key, value);
+        announcer.accept(name, localKey);
+    }
+
+    /**
+     * Decided by the shared tier, so a replica can not fill over what another one wrote in the meantime
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        final String localKey = TwoTierCacheManager.keyOf(key);
+        final ValueWrapper existing;
+        try {
+            existing = shared.putIfAbsent(key, value);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write '{}' to the shared {} cache", localKey, name, e);
+            return local.putIfAbsent(key, value);
+        }
+        if (existing != null) {
+            local.put(key, existing.get());
+            return existing;
+        }
+        local.put(key, value);
+        announcer.accept(name, localKey);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        final String localKey = TwoTierCacheManager.keyOf(key);
+        try {
+            shared.evict(key);
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict '{}' from the shared {} cache", localKey, name, e);
+        }
+        local.evict(key);
+        announcer.accept(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        try {
+            shared.clear();
+        } catch (RuntimeException e) {
+            log.warn("Failed to clear the shared {} cache", name, e);
+        }
+        local.clear();
+        announcer.accept(name, null);
+    }
+
+    /**
+     * Drops a local copy after another replica changed it. The announcement only carries the key as text, so every
+     * local key that reads the same is dropped, and the whole local tier when its keys can not be walked.
+     *
+     * @param localKey the changed key, null when the whole region changed
+     */
+    void invalidateLocal(final String localKey) {
+        if (localKey == null) {
+            local.clear();
+        } else if (local.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            caffeine.asMap().keySet().removeIf(key -> TwoTierCacheManager.keyOf(key).equals(localKey));
+        } else if (local.getNativeCache() instanceof ConcurrentMap<?, ?> map) {
+            map.keySet().removeIf(key -> TwoTierCacheManager.keyOf(key).equals(localKey));
+        } else {
+            local.clear();
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Hands out {@link TwoTierCache} regions and keeps the local tiers of the replicas in step. Every change is
+ * published on a Redis channel as {@code origin|region|key}, with an empty key for a cleared region, and each replica
+ * other than the origin drops the local copy.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 9:20 PM
+ */
+
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    private final Function<String, Cache> localCaches;
+    private final RedisCacheManager sharedCaches;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String channel;
+
+    /**
+     * @param regions     regions created up front so their metrics are bound at startup
+     * @param localCaches builds the local tier of a region
+     * @param channel     the Redis channel changes are announced on
+     */
+    public TwoTierCacheManager(final Collection<String> regions, final Function<String, Cache> localCaches,
+                               final RedisCacheManager sharedCaches, final StringRedisTemplate stringRedisTemplate,
+                               final String channel) {
+        this.localCaches = localCaches;
+        this.sharedCaches = sharedCaches;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.channel = channel;
+        regions.forEach(this::getCache);
+    }
+
+    /**
+     * The text a key is announced under, which two keys may share
+     */
+    static String keyOf(final Object key) {
+        return String.valueOf(key);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, region -> {
+            Cache shared = sharedCaches.getCache(region);
+            if (shared == null) {
+                throw new IllegalStateException("No shared cache for region " + region);
+            }
+            return new TwoTierCache(region, localCaches.apply(region), shared, this::announce);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private void announce(final String region, final String key) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, String.join("|", origin, region, key == null ? "" : key));
+        } catch (RuntimeException e) {
+            log.warn("Failed to announce a change to the {} cache, other replicas keep their copy until it expires", region, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        final String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(origin)) {
+            return;
+        }
+        final TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+
+}
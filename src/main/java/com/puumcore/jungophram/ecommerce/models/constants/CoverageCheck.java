@@ -0,0 +1,15 @@
+package com.puumcore.jungophram.ecommerce.models.constants;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 7:40 PM
+ */
+
+public enum CoverageCheck {
+    OFF,
+    LOG,
+    FAIL
+}
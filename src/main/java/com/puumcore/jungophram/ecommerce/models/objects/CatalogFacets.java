@@ -0,0 +1,40 @@
+package com.puumcore.jungophram.ecommerce.models.objects;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Counts of the products matching a catalog search, per category and per price band
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 5:40 PM
+ */
+
+public record CatalogFacets(List<FacetCount> categories, List<PriceBand> priceBands) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 281650L;
+
+    public record FacetCount(String value, long count) implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 281651L;
+
+    }
+
+    /**
+     * @param from inclusive lower bound
+     * @param to   exclusive upper bound, null for the open ended top band
+     */
+    public record PriceBand(Double from, Double to, long count) implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 281652L;
+
+    }
+
+}
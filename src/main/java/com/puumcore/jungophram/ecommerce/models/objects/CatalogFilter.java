@@ -0,0 +1,31 @@
+package com.puumcore.jungophram.ecommerce.models.objects;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Structured narrowing of a catalog search, every given field has to hold
+ *
+ * @param category exact category
+ * @param minPrice inclusive lower price bound
+ * @param maxPrice inclusive upper price bound
+ * @param inStock  when set, only products with stock left
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 8:30 PM
+ */
+
+public record CatalogFilter(String category, Double minPrice, Double maxPrice, boolean inStock) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 281660L;
+
+    public static final CatalogFilter NONE = new CatalogFilter(null, null, null, false);
+
+    public boolean isEmpty() {
+        return (category == null || category.isBlank()) && minPrice == null && maxPrice == null && !inStock;
+    }
+
+}
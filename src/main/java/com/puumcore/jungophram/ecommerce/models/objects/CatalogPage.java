@@ -0,0 +1,34 @@
+package com.puumcore.jungophram.ecommerce.models.objects;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serial;
+
+/**
+ * A page of catalog results along with the facets of the whole search
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 5:44 PM
+ */
+
+@Getter
+@Setter
+public class CatalogPage<E> extends Paged<E> {
+
+    @Serial
+    private static final long serialVersionUID = 281653L;
+
+    private CatalogFacets facets;
+
+    public CatalogPage(final Paged<E> paged, final CatalogFacets facets) {
+        super(paged.getTotalPages());
+        setHasNext(paged.isHasNext());
+        getData().addAll(paged.getData());
+        this.facets = facets;
+    }
+
+}
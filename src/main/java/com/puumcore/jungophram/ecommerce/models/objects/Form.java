@@ -56,13 +56,50 @@ public abstract class Form {
 
     }
 
-    public record Search(String param) implements Serializable {
+    /**
+     * @param total when set, filtered listings also count every match so the page carries its total pages
+     */
+    public record Search(String param, boolean total) implements Serializable {
 
         @Serial
         private static final long serialVersionUID = 592979L;
 
     }
 
+    /**
+     * @param category exact category to browse, which together with the price and stock filters is served by the
+     *                 catalog browse indexes
+     * @param minPrice inclusive lower price bound
+     * @param maxPrice inclusive upper price bound
+     * @param inStock  when set, only products with stock left are returned
+     * @param facets   when set, the per category and price band counts of the whole search are returned with the page
+     * @param total    when set, a search also counts every match so the page carries its total pages
+     */
+    public record CatalogSearch(String param, String category, Double minPrice, Double maxPrice, boolean inStock,
+                                boolean facets, boolean total) implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 592980L;
+
+        public CatalogFilter filter() {
+            return new CatalogFilter(category == null || category.isBlank() ? null : category.trim(), minPrice, maxPrice, inStock);
+        }
+
+    }
+
+    /**
+     * Admin user directory search. Every given field narrows the search: role is an exact match while name and
+     * email match from their start, without regard to case.
+     *
+     * @param cursor the next cursor of the previous page, absent for the first page
+     */
+    public record UserSearch(String name, String email, Role role, String cursor) implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 592981L;
+
+    }
+
     public record StockToUpdatePrice(@NonNull Long id, @NonNull Double price) implements Serializable {
 
         @Serial
@@ -0,0 +1,25 @@
+package com.puumcore.jungophram.ecommerce.models.objects;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * What is cached of a listing page: the ids of its rows and how it pages on, without the rows themselves
+ *
+ * @param ids        the row ids in page order, a UUID taking two slots
+ * @param totalPages as on the {@link Paged} it stands for
+ * @param hasNext    as on the {@link Paged} it stands for
+ * @param next       as on the {@link Paged} it stands for
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 10:20 PM
+ */
+
+public record IdPage(long[] ids, Integer totalPages, boolean hasNext, String next) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 730412L;
+
+}
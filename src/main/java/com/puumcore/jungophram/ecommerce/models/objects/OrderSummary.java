@@ -0,0 +1,33 @@
+package com.puumcore.jungophram.ecommerce.models.objects;
+
+import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 10:25 AM
+ */
+
+public record OrderSummary(UUID id, LocalDateTime orderDate, OrderStatus orderStatus, Double totalAmount,
+                           Integer lines) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 518204L;
+
+    /**
+     * The summary the order summary projection gives for the order
+     */
+    public static OrderSummary of(final Order order) {
+        final int lines = order.getCart() == null || order.getCart().getItems() == null ? 0 : order.getCart().getItems().size();
+        return new OrderSummary(order.getId(), order.getOrderDate(), order.getOrderStatus(), order.getTotalAmount(), lines);
+    }
+
+}
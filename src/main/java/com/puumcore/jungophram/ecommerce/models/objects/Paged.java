@@ -1,9 +1,14 @@
 package com.puumcore.jungophram.ecommerce.models.objects;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -25,7 +30,38 @@ public class Paged<E> implements Serializable {
     @Serial
     private static final long serialVersionUID = 564354L;
 
+    /**
+     * Null unless the listing was counted, which filtered listings only do when a total is asked for
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private final Integer totalPages;
+    private boolean hasNext;
+    /**
+     * Cursor of the following page, for listings that are paged by key rather than by page number
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String next;
     private transient List<E> data = new ArrayList<>();
+    /**
+     * Content hash of a cached page, taken when the page is loaded so a conditional read does not hash it again
+     */
+    @JsonIgnore
+    private String etag;
+
+    /**
+     * The rows are transient, so they are written by hand for the page to survive a trip through the distributed cache
+     */
+    @Serial
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(new ArrayList<>(data));
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        data = (List<E>) in.readObject();
+    }
 
 }
@@ -0,0 +1,19 @@
+package com.puumcore.jungophram.ecommerce.models.objects;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 4:58 PM
+ */
+
+public record Suggestion(Long productId, String name, String category) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 730412L;
+
+}
@@ -0,0 +1,22 @@
+package com.puumcore.jungophram.ecommerce.models.objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.puumcore.jungophram.ecommerce.models.constants.WarmUpState;
+
+import java.time.LocalDateTime;
+
+/**
+ * @param tasks  loads planned, one per catalog page plus one for the top sellers and one for the accounts
+ * @param done   loads finished, failed ones included
+ * @param failed loads that threw
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:20 PM
+ */
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WarmUpProgress(WarmUpState state, int tasks, int done, int failed,
+                             LocalDateTime startedAt, LocalDateTime finishedAt) {
+}
@@ -5,10 +5,7 @@ import com.puumcore.jungophram.ecommerce.exceptions.BadRequestException;
 import com.puumcore.jungophram.ecommerce.models.constants.Role;
 import com.puumcore.jungophram.ecommerce.models.objects.Paged;
 import com.puumcore.jungophram.ecommerce.repositories.entities.Account;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.Optional;
@@ -23,7 +20,6 @@ import java.util.regex.Pattern;
  */
 public interface AccountOps extends UserDetailsService {
 
-    @CacheEvict(value = {"user", "users"}, allEntries = true)
     Optional<Account> createUser(String name, String email, String password, Role role);
 
     Optional<Account> getUser(String username);
@@ -32,17 +28,12 @@ public interface AccountOps extends UserDetailsService {
 
     Account getUserFromToken(String jwt) throws JWTVerificationException;
 
-    @CacheEvict(value = {"user", "users"}, allEntries = true)
     Optional<Account> updateUser(Long id, String name, String email);
 
-    @CacheEvict(value = {"user", "users"}, allEntries = true)
     Optional<Account> updateUser(Long id, String password);
 
-    @Cacheable("users")
-    Optional<Paged<Account>> getUsers(Pageable pageable);
+    Optional<Paged<Account>> getUsers(String name, String email, Role role, String cursor, int size);
 
-    @Cacheable("users")
-    Optional<Paged<Account>> getUsers(String param, Pageable pageable);
 
     default void validatePassword(final String rawPassword) {
         final var WHITE_SPACE_REGEX = "\\s+";
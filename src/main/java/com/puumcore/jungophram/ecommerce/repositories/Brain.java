@@ -5,36 +5,71 @@ import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.puumcore.jungophram.ecommerce.configs.CatalogSearchConfig;
 import com.puumcore.jungophram.ecommerce.configs.CustomSecurityConfig;
+import com.puumcore.jungophram.ecommerce.configs.OrderCheckoutConfig;
 import com.puumcore.jungophram.ecommerce.custom.Assistant;
+import com.puumcore.jungophram.ecommerce.custom.CacheGenerations;
+import com.puumcore.jungophram.ecommerce.custom.ETags;
+import com.puumcore.jungophram.ecommerce.custom.EntityCache;
+import com.puumcore.jungophram.ecommerce.custom.PageCache;
+import com.puumcore.jungophram.ecommerce.custom.SingleFlight;
 import com.puumcore.jungophram.ecommerce.exceptions.AccessDeniedException;
+import com.puumcore.jungophram.ecommerce.exceptions.BadRequestException;
 import com.puumcore.jungophram.ecommerce.models.constants.Channel;
+import com.puumcore.jungophram.ecommerce.models.constants.FulfilmentStatus;
 import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
 import com.puumcore.jungophram.ecommerce.models.constants.Role;
+import com.puumcore.jungophram.ecommerce.models.constants.SearchMode;
+import com.puumcore.jungophram.ecommerce.models.objects.CatalogFacets;
+import com.puumcore.jungophram.ecommerce.models.objects.CatalogFilter;
+import com.puumcore.jungophram.ecommerce.models.objects.OrderSummary;
 import com.puumcore.jungophram.ecommerce.models.objects.Paged;
 import com.puumcore.jungophram.ecommerce.repositories.entities.*;
 import com.puumcore.jungophram.ecommerce.services.SequenceGeneratorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.*;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * @author Puum Core (Mandela Muriithi)<br>
@@ -50,7 +85,32 @@ import java.util.regex.Pattern;
 @Repository
 public class Brain implements AccountOps, LoginOps,
         StockOps, ShoppingOps,
-        OrdersOps {
+        OrdersOps, FulfilmentOps {
+
+    /**
+     * Page groups of the users and orders regions
+     */
+    private static final String ANY_ROLE = "any";
+    private static final String ALL_ORDERS = "all";
+    private static final String ORDERS_BY_STATUS = "by_status";
+    private static final String ORDER_SEARCHES = "search";
+    /**
+     * Page groups of the products region, split by what a change of stock can move, and the group of the facets
+     */
+    private static final String ALL_PRODUCTS = "all";
+    private static final String PRODUCTS_BY_STOCK = "by_stock";
+    private static final String PRODUCTS_IN_STOCK = "in_stock";
+    private static final String CATALOG_FACETS = "facets";
+    /**
+     * How long the list of archive partitions is trusted before it is read again, bounding how late the partitions
+     * another instance creates are seen
+     */
+    private static final long ORDER_ARCHIVES_TTL_MILLIS = Duration.ofMinutes(1).toMillis();
+    /**
+     * How long a product remembers the orders deducted from it, well past any attempt still running for an order
+     * whose deduction is not yet recorded
+     */
+    private static final Duration STOCK_DEDUCTION_MEMORY = Duration.ofHours(1);
 
     private final MongoTemplate mongoTemplate;
     private final UserRepo userRepo;
@@ -60,39 +120,65 @@ public class Brain implements AccountOps, LoginOps,
     private final ProductRepo productRepo;
     private final ShoppingCartRepo shoppingCartRepo;
     private final OrderRepo orderRepo;
+    private final FulfilmentTaskRepo fulfilmentTaskRepo;
+    private final MongoTransactionManager mongoTransactionManager;
+    private final OrderCheckoutConfig orderCheckoutConfig;
+    private final CatalogSearchConfig catalogSearchConfig;
+    private final IndexBootstrapper indexBootstrapper;
+    private final CacheManager cacheManager;
+    private final SingleFlight singleFlight;
+
+    private volatile Boolean transactionsSupported;
+    private volatile List<String> orderArchives;
+    private volatile long orderArchivesReadAt;
 
-    @CacheEvict(value = {"user", "users"}, allEntries = true)
     @Override
     public Optional<Account> createUser(String name, String email, String password, Role role) {
         try {
-            Account account = new Account(name, email, password, role);
+            Account account = new Account(name, Account.normalizeEmail(email), password, role);
             account.setUser_id(sequenceGeneratorService.generateSequence(Account.SEQUENCE_NAME));
-            return Optional.of(userRepo.save(account));
+            final Account insertedAccount = userRepo.insert(account);
+            accountCache().put(insertedAccount);
+            accountPages().evict(getUserPageGroups(insertedAccount.getRole()));
+            return Optional.of(insertedAccount);
+        } catch (DuplicateKeyException e) {
+            throw new BadRequestException("Duplicate user found. Please provide a unique email.");
         } catch (Exception e) {
             log.error("Failed to create user account", e);
         }
         return Optional.empty();
     }
 
+    /**
+     * Concurrent lookups of the same account share one read. The account is not cached, it carries the password hash,
+     * which does not survive the shared cache.
+     */
     @Override
     public Optional<Account> getUser(String username) {
         try {
-            var query = new Query();
-            query.addCriteria(
-                    Criteria
-                            .where("email").is(username)
+            return singleFlight.run(
+                    SimpleKeyGenerator.generateKey("user", Account.normalizeEmail(username)),
+                    () -> Optional.ofNullable(mongoTemplate.findOne(getUserByEmailQuery(username), Account.class))
             );
-            return Optional.ofNullable(mongoTemplate.findOne(query, Account.class));
         } catch (Exception e) {
             log.error("Failed to get user", e);
         }
         return Optional.empty();
     }
 
+    static Query getUserByEmailQuery(final String username) {
+        var query = new Query();
+        query.addCriteria(
+                Criteria
+                        .where("email").is(Account.normalizeEmail(username))
+        );
+        return query;
+    }
+
     @Override
     public Optional<Account> getUser(Long id) {
         try {
-            return userRepo.findById(id);
+            return singleFlight.run(SimpleKeyGenerator.generateKey("user", id), () -> userRepo.findById(id));
         } catch (Exception e) {
             log.error("Failed to get user", e);
         }
@@ -125,7 +211,6 @@ public class Brain implements AccountOps, LoginOps,
         return accountOptional.get();
     }
 
-    @CacheEvict(value = {"user", "users"}, allEntries = true)
     @Override
     public Optional<Account> updateUser(Long id, String name, String email) {
         Optional<Account> accountOptional = userRepo.findById(id);
@@ -135,12 +220,19 @@ public class Brain implements AccountOps, LoginOps,
                 Optional.ofNullable(name)
                         .ifPresent(account::setName);
                 Optional.ofNullable(email)
+                        .map(Account::normalizeEmail)
                         .ifPresent(account::setEmail);
 
                 Optional<Account> previousAccountOptional = Optional.ofNullable(mongoTemplate.findAndReplace(getByIdQuery(account.getUser_id()), account));
                 if (previousAccountOptional.isPresent()) {
-                    return userRepo.findById(previousAccountOptional.get().getUser_id());
+                    final Optional<Account> updatedAccountOptional = userRepo.findById(previousAccountOptional.get().getUser_id());
+                    updatedAccountOptional.ifPresent(accountCache()::put);
+                    // a new name or email can move the account within and between the directory pages of its role
+                    accountPages().evict(getUserPageGroups(previousAccountOptional.get().getRole()));
+                    return updatedAccountOptional;
                 }
+            } catch (DuplicateKeyException e) {
+                throw new BadRequestException("Duplicate user found. Please provide a unique email.");
             } catch (Exception e) {
                 log.error("Failed to user info", e);
             }
@@ -148,7 +240,6 @@ public class Brain implements AccountOps, LoginOps,
         return Optional.empty();
     }
 
-    @CacheEvict(value = {"user", "users"}, allEntries = true)
     @Override
     public Optional<Account> updateUser(Long id, String password) {
         Optional<Account> accountOptional = userRepo.findById(id);
@@ -160,7 +251,9 @@ public class Brain implements AccountOps, LoginOps,
 
                 Optional<Account> previousAccountOptional = Optional.ofNullable(mongoTemplate.findAndReplace(getByIdQuery(account.getUser_id()), account));
                 if (previousAccountOptional.isPresent()) {
-                    return userRepo.findById(previousAccountOptional.get().getUser_id());
+                    final Optional<Account> updatedAccountOptional = userRepo.findById(previousAccountOptional.get().getUser_id());
+                    updatedAccountOptional.ifPresent(accountCache()::put);
+                    return updatedAccountOptional;
                 }
             } catch (Exception e) {
                 log.error("Failed to user info", e);
@@ -169,44 +262,121 @@ public class Brain implements AccountOps, LoginOps,
         return Optional.empty();
     }
 
-    @Cacheable("users")
+    /**
+     * Keyset paged directory search. An email prefix pages in email order, anything else in name order, which the
+     * account indexes serve with or without the role.
+     */
     @Override
-    public Optional<Paged<Account>> getUsers(Pageable pageable) {
+    public Optional<Paged<Account>> getUsers(String name, String email, Role role, String cursor, int size) {
+        return accountPages().get(
+                role == null ? ANY_ROLE : role,
+                SimpleKeyGenerator.generateKey(name, email, role, cursor, size),
+                this::getAccounts,
+                () -> searchUsers(name, email, role, cursor, size)
+        );
+    }
+
+    private Optional<Paged<Account>> searchUsers(final String name, final String email, final Role role, final String cursor, final int size) {
         try {
-            Page<Account> page = userRepo.findAll(pageable);
-            Paged<Account> paged = new Paged<>(page.getTotalPages());
-            paged.getData().addAll(page.get().toList());
+            final boolean byEmail = email != null && !email.isBlank();
+            final List<Account> accountList = mongoTemplate.find(getUserSearchQuery(name, email, role, cursor, size), Account.class);
+            if (accountList.isEmpty()) {
+                return Optional.empty();
+            }
+
+            final boolean hasNext = accountList.size() > size;
+            final List<Account> page = hasNext ? accountList.subList(0, size) : accountList;
+            Paged<Account> paged = new Paged<>(null);
+            paged.setHasNext(hasNext);
+            if (hasNext) {
+                paged.setNext(getUserCursor(page.get(page.size() - 1), byEmail));
+            }
+            paged.getData().addAll(page);
             return Optional.of(paged);
+        } catch (BadRequestException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Failed to get all user accounts", e);
+            log.error("Failed to get user accounts based on param", e);
         }
         return Optional.empty();
     }
 
-    @Cacheable("users")
-    @Override
-    public Optional<Paged<Account>> getUsers(String param, Pageable pageable) {
+    private List<Account> getAccounts(final Collection<Long> ids) {
+        return mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), Account.class);
+    }
+
+    /**
+     * The accounts by id, the rows of the cached directory pages
+     */
+    private EntityCache<Long, Account> accountCache() {
+        return new EntityCache<>(cacheManager.getCache("account"), Account.class, Account::getUser_id);
+    }
+
+    /**
+     * Directory pages are grouped by the role they are narrowed to
+     */
+    private PageCache<Long, Account> accountPages() {
+        return PageCache.byLongId(cacheManager.getCache("users"), accountCache());
+    }
+
+    private static Object[] getUserPageGroups(final Role role) {
+        return new Object[]{ANY_ROLE, role};
+    }
+
+    static Query getUserSearchQuery(final String name, final String email, final Role role, final String cursor, final int size) {
+        final boolean byEmail = email != null && !email.isBlank();
+        final List<Criteria> criteria = new ArrayList<>();
+        if (role != null) {
+            criteria.add(Criteria.where("role").is(role));
+        }
+        if (name != null && !name.isBlank()) {
+            criteria.add(Criteria.where("nameKey").regex("^" + escapeRegex(Account.normalizeName(name))));
+        }
+        if (byEmail) {
+            criteria.add(Criteria.where("email").regex("^" + escapeRegex(Account.normalizeEmail(email))));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            criteria.add(getUserCursorCriteria(cursor, byEmail));
+        }
+        return new Query(criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria))
+                .with(byEmail ? Sort.by("email") : Sort.by("nameKey", "user_id"))
+                .limit(size + 1);
+    }
+
+    private static String getUserCursor(final Account last, final boolean byEmail) {
+        final String key = byEmail ? "e:" + last.getEmail() : "n:" + last.getUser_id() + ":" + last.getNameKey();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Everything after the last account of the previous page, in the order the page was sorted in
+     */
+    private static Criteria getUserCursorCriteria(final String cursor, final boolean byEmail) {
         try {
-            var criteria = new Criteria();
-            var containsPattern = Pattern.compile("%s(?i)".formatted(param));
-            criteria.orOperator(
-                    Criteria.where("name").regex(containsPattern),
-                    Criteria.where("email").regex(containsPattern),
-                    Criteria.where("role").regex(containsPattern)
-            );
-            final Query query = new Query(criteria).with(pageable);
-            final long total = mongoTemplate.count(query, Account.class);
-            if (total > 0) {
-                final List<Account> accountList = mongoTemplate.find(query, Account.class);
-                final int totalPages = Assistant.roundOffToNearestWholeNumber(total, pageable.getPageSize());
-                Paged<Account> paged = new Paged<>(totalPages);
-                paged.getData().addAll(accountList);
-                return Optional.of(paged);
+            final String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (byEmail && key.startsWith("e:")) {
+                return Criteria.where("email").gt(key.substring(2));
             }
-        } catch (Exception e) {
-            log.error("Failed to get user accounts based on param", e);
+            if (!byEmail && key.startsWith("n:")) {
+                final int separator = key.indexOf(':', 2);
+                final long userId = Long.parseLong(key.substring(2, separator));
+                final String nameKey = key.substring(separator + 1);
+                return new Criteria().orOperator(
+                        Criteria.where("nameKey").gt(nameKey),
+                        new Criteria().andOperator(Criteria.where("nameKey").is(nameKey), Criteria.where("_id").gt(userId))
+                );
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            log.warn("Unreadable user search cursor '{}'", cursor);
         }
-        return Optional.empty();
+        throw new BadRequestException("Invalid search cursor");
+    }
+
+    /**
+     * Escapes regex syntax so a prefix stays a plain prefix, which the database can turn into an index range
+     */
+    private static String escapeRegex(final String literal) {
+        return literal.replaceAll("[\\\\^$.|?*+()\\[\\]{}]", "\\\\$0");
     }
 
     @Override
@@ -254,7 +424,6 @@ public class Brain implements AccountOps, LoginOps,
         return Optional.empty();
     }
 
-    @CacheEvict({"user"})
     @Override
     public void logout(Long id) {
         try {
@@ -268,7 +437,7 @@ public class Brain implements AccountOps, LoginOps,
         }
     }
 
-    private Query getActiveLoginQuery(final Long id) {
+    static Query getActiveLoginQuery(final Long id) {
         var query = new Query();
         query.addCriteria(Criteria.where("user._id").is(id));
         var criteria = new Criteria();
@@ -311,6 +480,16 @@ public class Brain implements AccountOps, LoginOps,
     @Cacheable("product")
     @Override
     public Optional<Product> getProduct(String name, String description, String category) {
+        try {
+            return Optional.ofNullable(mongoTemplate.findOne(getProductQuery(name, description, category), Product.class));
+        } catch (Exception e) {
+            log.error("Failed to get stock item", e);
+        }
+
+        return Optional.empty();
+    }
+
+    static Query getProductQuery(final String name, final String description, final String category) {
         var query = new Query();
         query.addCriteria(Criteria.where("name").is(name));
         var criteria = new Criteria();
@@ -319,17 +498,9 @@ public class Brain implements AccountOps, LoginOps,
                 Criteria.where("category").is(category)
         );
         query.addCriteria(criteria);
-
-        try {
-            return Optional.ofNullable(mongoTemplate.findOne(query, Product.class));
-        } catch (Exception e) {
-            log.error("Failed to get stock item", e);
-        }
-
-        return Optional.empty();
+        return query;
     }
 
-    @CacheEvict(value = {"product"}, allEntries = true)
     @Override
     public Optional<Product> saveProduct(String name, String description, double price, int qty, String category, String url) {
         try {
@@ -338,127 +509,532 @@ public class Brain implements AccountOps, LoginOps,
             if (!Optional.ofNullable(url).orElse("").isBlank()) {
                 product.setImageUrl(url);
             }
-            return Optional.of(productRepo.save(product));
+            final Product savedProduct = productRepo.save(product);
+            productCache().put(savedProduct);
+            evictProducts(true, true, savedProduct);
+            return Optional.of(savedProduct);
         } catch (Exception e) {
             log.error("Failed to create stock item", e);
         }
         return Optional.empty();
     }
 
+    /**
+     * Sets only the given fields in a single write, so a stock deduction landing meanwhile is kept
+     */
     @Override
     public Optional<Product> updateProduct(Long id, String name, String description, String category, String url) {
-        Optional<Product> optionalProduct = productRepo.findById(id);
-        if (optionalProduct.isPresent()) {
-            try {
-                Product product = optionalProduct.get();
-                Optional.ofNullable(name)
-                        .ifPresent(product::setName);
-                Optional.ofNullable(description)
-                        .ifPresent(product::setDescription);
-                Optional.ofNullable(category)
-                        .ifPresent(product::setCategory);
-                Optional.ofNullable(url)
-                        .ifPresent(product::setImageUrl);
-
-                Optional<Product> previousProductOptional = Optional.ofNullable(mongoTemplate.findAndReplace(getByIdQuery(product.getProduct_id()), product));
-                if (previousProductOptional.isPresent()) {
-                    return productRepo.findById(previousProductOptional.get().getProduct_id());
-                }
-            } catch (Exception e) {
-                log.error("Failed to update stock item", e);
+        try {
+            final Update update = new Update();
+            Optional.ofNullable(name)
+                    .ifPresent(s -> update.set("name", s));
+            Optional.ofNullable(description)
+                    .ifPresent(s -> update.set("description", s));
+            Optional.ofNullable(category)
+                    .ifPresent(s -> update.set("category", s));
+            Optional.ofNullable(url)
+                    .ifPresent(s -> update.set("imageUrl", s));
+            if (update.getUpdateObject().isEmpty()) {
+                return getProduct(id);
             }
+
+            Optional<Product> previousProductOptional = Optional.ofNullable(mongoTemplate.findAndModify(getByIdQuery(id), update, Product.class));
+            if (previousProductOptional.isPresent()) {
+                final Product previous = previousProductOptional.get();
+                final Product product = new Product(
+                        previous.getProduct_id(),
+                        Optional.ofNullable(name).orElse(previous.getName()),
+                        Optional.ofNullable(description).orElse(previous.getDescription()),
+                        previous.getPrice(),
+                        previous.getStockQuantity(),
+                        Optional.ofNullable(category).orElse(previous.getCategory()),
+                        Optional.ofNullable(url).orElse(previous.getImageUrl())
+                );
+                productCache().put(product);
+                evictProducts(true, true, previous, product);
+                return Optional.of(product);
+            }
+        } catch (Exception e) {
+            log.error("Failed to update stock item", e);
         }
         return Optional.empty();
     }
 
     @Override
     public Optional<Product> updateProduct(Long id, Integer qty) {
-        Optional<Product> optionalProduct = productRepo.findById(id);
-        if (optionalProduct.isPresent()) {
-            try {
-                Product product = optionalProduct.get();
+        try {
+            Optional<Product> optionalProduct = Optional.ofNullable(mongoTemplate.findAndModify(
+                    getByIdQuery(id),
+                    new Update().set("stockQuantity", qty),
+                    Product.class
+            ));
+            optionalProduct.ifPresent(product -> {
+                // the in stock facets only move when the product runs out or comes back
+                final boolean restocked = Objects.requireNonNullElse(product.getStockQuantity(), 0) > 0 != qty > 0;
                 product.setStockQuantity(qty);
+                productCache().put(product);
+                evictProducts(false, restocked, product);
+            });
+            return optionalProduct;
+        } catch (Exception e) {
+            log.error("Failed to update stock item quantity", e);
+        }
+        return Optional.empty();
+    }
 
-                Optional<Product> previousProductOptional = Optional.ofNullable(mongoTemplate.findAndReplace(getByIdQuery(product.getProduct_id()), product));
-                if (previousProductOptional.isPresent()) {
-                    return productRepo.findById(previousProductOptional.get().getProduct_id());
-                }
+    @Override
+    public Optional<Product> updateProduct(Long id, Double price) {
+        try {
+            Optional<Product> optionalProduct = Optional.ofNullable(mongoTemplate.findAndModify(
+                    getByIdQuery(id),
+                    new Update().set("price", price),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Product.class
+            ));
+            optionalProduct.ifPresent(product -> {
+                productCache().put(product);
+                evictProducts(true, true, product);
+            });
+            return optionalProduct;
+        } catch (Exception e) {
+            log.error("Failed to update stock item price", e);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean deleteProduct(Long id) {
+        try {
+            final Product removedProduct = mongoTemplate.findAndRemove(getByIdQuery(id), Product.class);
+            if (removedProduct == null) {
+                return false;
+            }
+            productCache().evict(id);
+            evictProducts(true, true, removedProduct);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to delete stock item", e);
+        }
+        return false;
+    }
+
+    /**
+     * The products by id, written through on every product write
+     */
+    private EntityCache<Long, Product> productCache() {
+        return new EntityCache<>(cacheManager.getCache("product_by_id"), Product.class, Product::getProduct_id);
+    }
+
+    /**
+     * Drops the cached lookups of the given products by their identity, and the catalog pages and facets the change can
+     * move, which are keyed by search rather than by product. A change of stock alone leaves the pages that neither
+     * sort nor filter by it, whose rows are read from the product cache. Runs after the write so a read racing it can
+     * not cache the old state for long.
+     *
+     * @param listed    whether the change can match, unmatch or reorder the products in any listing
+     * @param restocked whether a product ran out or came back, which moves the in stock pages and facets
+     */
+    private void evictProducts(final boolean listed, final boolean restocked, final Product... products) {
+        Optional.ofNullable(cacheManager.getCache("product"))
+                .ifPresent(cache -> Arrays.stream(products)
+                        .forEach(product -> cache.evict(new SimpleKey(product.getName(), product.getDescription(), product.getCategory()))));
+        if (listed) {
+            productPages().evict(ALL_PRODUCTS, PRODUCTS_BY_STOCK, PRODUCTS_IN_STOCK);
+        } else if (restocked) {
+            productPages().evict(PRODUCTS_BY_STOCK, PRODUCTS_IN_STOCK);
+        } else {
+            productPages().evict(PRODUCTS_BY_STOCK);
+        }
+        if (listed || restocked) {
+            CacheGenerations.evict(cacheManager.getCache("facets"), CATALOG_FACETS);
+        }
+    }
+
+    /**
+     * Takes the stock of each completed order off its products at most once. Every product line of an order is one
+     * guarded write that notes the order on the product as it decrements the stock, floored at zero, so an attempt
+     * repeating a line, after a partial failure or alongside another attempt, leaves it alone. Once every line of an
+     * order is applied the order is marked deducted and later attempts skip it. The outcome is settled before the product
+     * cache is refreshed, which can not turn a deduction into a failed one.
+     *
+     * @return the orders whose deduction is recorded, now or before
+     */
+    @Override
+    public Set<UUID> deductStock(Collection<Order> orders) {
+        final Set<UUID> deducted = new HashSet<>();
+        if (orders.isEmpty()) {
+            return deducted;
+        }
+        final List<UUID> orderIds = orders.stream()
+                .map(Order::getId)
+                .toList();
+        final List<Order> outstanding;
+        try {
+            outstanding = mongoTemplate.find(getUndeductedOrdersQuery(orderIds), Order.class);
+        } catch (Exception e) {
+            log.error("Failed to read the orders to deduct stock for", e);
+            return deducted;
+        }
+        final Set<UUID> outstandingIds = outstanding.stream()
+                .map(Order::getId)
+                .collect(Collectors.toSet());
+        orderIds.stream()
+                .filter(orderId -> !outstandingIds.contains(orderId))
+                .forEach(deducted::add);
+        if (outstanding.isEmpty()) {
+            return deducted;
+        }
+
+        final List<UpdateOneModel<Document>> updates = new ArrayList<>();
+        final List<UUID> updatedOrders = new ArrayList<>();
+        outstanding.forEach(order -> getStockDeductionUpdates(order).forEach(update -> {
+            updates.add(update);
+            updatedOrders.add(order.getId());
+        }));
+        final Set<UUID> applied = new LinkedHashSet<>(outstandingIds);
+        try {
+            mongoTemplate.getCollection(Product.collection).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null) {
+                applied.clear();
+            }
+            e.getWriteErrors().forEach(error -> applied.remove(updatedOrders.get(error.getIndex())));
+            log.error("Failed to deduct the stock of {} of {} order(s), the lines applied are not taken again", outstanding.size() - applied.size(), outstanding.size(), e);
+        } catch (Exception e) {
+            applied.clear();
+            log.error("Failed to deduct the stock of {} order(s), the lines applied are not taken again", outstanding.size(), e);
+        }
+        if (!applied.isEmpty()) {
+            try {
+                mongoTemplate.updateMulti(getUndeductedOrdersQuery(applied), Update.update("stockDeducted", true), Order.class);
+                deducted.addAll(applied);
             } catch (Exception e) {
-                log.error("Failed to update stock item quantity", e);
+                log.error("Failed to record the stock deduction of {} order(s)", applied.size(), e);
             }
         }
-        return Optional.empty();
+
+        refreshProducts(Order.itemQuantities(outstanding).keySet());
+        return deducted;
+    }
+
+    static Query getUndeductedOrdersQuery(final Collection<UUID> orderIds) {
+        return new Query(Criteria
+                .where("_id").in(orderIds)
+                .and("orderStatus").is(OrderStatus.COMPLETED)
+                .and("stockDeducted").is(false));
+    }
+
+    /**
+     * One write per product of the order, matching only while the product has no note of the order. The notes live
+     * in the product's stockDeductions, which is not mapped on the entity, and each write drops the ones older than
+     * {@link #STOCK_DEDUCTION_MEMORY}.
+     */
+    static List<UpdateOneModel<Document>> getStockDeductionUpdates(final Order order) {
+        final String orderId = order.getId().toString();
+        return Order.itemQuantities(List.of(order)).entrySet().stream()
+                .map(entry -> new UpdateOneModel<Document>(
+                        Filters.and(Filters.eq("_id", entry.getKey()), Filters.ne("stockDeductions.order", orderId)),
+                        List.of(new Document("$set", new Document()
+                                .append("stockQuantity", new Document("$max", List.of(0, new Document("$subtract", List.of("$stockQuantity", entry.getValue())))))
+                                .append("stockDeductions", new Document("$concatArrays", List.of(
+                                        new Document("$filter", new Document()
+                                                .append("input", new Document("$ifNull", List.of("$stockDeductions", List.of())))
+                                                .append("cond", new Document("$gte", List.of("$$this.at",
+                                                        new Document("$subtract", List.of("$$NOW", STOCK_DEDUCTION_MEMORY.toMillis())))))),
+                                        List.of(new Document("order", orderId).append("at", "$$NOW"))
+                                )))))
+                ))
+                .toList();
+    }
+
+    /**
+     * Writes the products through to the cache after their stock changed, a failure only leaves them to expire
+     */
+    private void refreshProducts(final Collection<Long> ids) {
+        try {
+            final List<Product> products = mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), Product.class);
+            products.forEach(productCache()::put);
+            evictProducts(false, products.stream().anyMatch(product -> Objects.equals(product.getStockQuantity(), 0)), products.toArray(Product[]::new));
+        } catch (Exception e) {
+            log.warn("Failed to refresh the cached stock of products {}", ids, e);
+        }
     }
 
     @Override
-    public Optional<Product> updateProduct(Long id, Double price) {
-        Optional<Product> optionalProduct = productRepo.findById(id);
-        if (optionalProduct.isPresent()) {
+    public Optional<Paged<Product>> getProducts(Pageable pageable) {
+        return productPages().get(getProductPageGroup(CatalogFilter.NONE, pageable), SimpleKeyGenerator.generateKey(pageable), this::getProductRows, () -> {
             try {
-                Product product = optionalProduct.get();
-                product.setPrice(price);
+                final List<Product> productList = mongoTemplate.find(getPageQuery(new Query(), pageable), Product.class);
+                return getPaged(productList, pageable, mongoTemplate.estimatedCount(Product.class));
+            } catch (Exception e) {
+                log.error("Failed to get all stock items", e);
+            }
+            return Optional.empty();
+        }).map(Brain::tagged);
+    }
 
-                Optional<Product> previousProductOptional = Optional.ofNullable(mongoTemplate.findAndReplace(getByIdQuery(product.getProduct_id()), product));
-                if (previousProductOptional.isPresent()) {
-                    return productRepo.findById(previousProductOptional.get().getProduct_id());
-                }
+    /**
+     * A blank param browses by the filter alone, which the category browse indexes serve in product id order
+     */
+    @Override
+    public Optional<Paged<Product>> getProducts(String param, CatalogFilter filter, Pageable pageable, boolean total) {
+        return productPages().get(getProductPageGroup(filter, pageable), SimpleKeyGenerator.generateKey(param, filter, pageable, total), this::getProductRows, () -> {
+            try {
+                final Query query = getProductSearchQuery(param, filter, catalogSearchConfig.getMode());
+                final List<Product> productList = mongoTemplate.find(getPageQuery(query, pageable), Product.class);
+                return getPaged(productList, pageable, total ? mongoTemplate.count(query, Product.class) : null);
             } catch (Exception e) {
-                log.error("Failed to update stock item price", e);
+                log.error("Failed to get stock items based on param", e);
             }
+            return Optional.empty();
+        }).map(Brain::tagged);
+    }
+
+    private List<Product> getProductRows(final Collection<Long> ids) {
+        return mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), Product.class);
+    }
+
+    /**
+     * Catalog pages are grouped by whether a change of stock can move them, the rows of the rest are only refreshed
+     */
+    private PageCache<Long, Product> productPages() {
+        return PageCache.byLongId(cacheManager.getCache("products"), productCache());
+    }
+
+    private static String getProductPageGroup(final CatalogFilter filter, final Pageable pageable) {
+        if (pageable.getSort().getOrderFor("stockQuantity") != null) {
+            return PRODUCTS_BY_STOCK;
+        }
+        return filter.inStock() ? PRODUCTS_IN_STOCK : ALL_PRODUCTS;
+    }
+
+    /**
+     * Catalog pages are put back together from the product cache, so their entity tag is taken on every read
+     */
+    private static Paged<Product> tagged(final Paged<Product> paged) {
+        paged.setEtag(ETags.of(paged));
+        return paged;
+    }
+
+    @Override
+    public Optional<Product> getProduct(Long id) {
+        try {
+            return productCache().get(id, productRepo::findById);
+        } catch (Exception e) {
+            log.error("Failed to get stock item by id", e);
         }
         return Optional.empty();
     }
 
-    @CachePut("products")
+    /**
+     * Serves the given products from the product cache and loads the misses in one round trip, in the order of the ids
+     */
     @Override
-    public Optional<Paged<Product>> getProducts(Pageable pageable) {
+    public Optional<List<Product>> getProducts(Collection<Long> ids) {
         try {
-            Page<Product> page = productRepo.findAll(pageable);
-            Paged<Product> paged = new Paged<>(page.getTotalPages());
-            paged.getData().addAll(page.get().toList());
-            return Optional.of(paged);
+            return Optional.of(productCache().getAll(ids, this::getProductRows));
         } catch (Exception e) {
-            log.error("Failed to get all stock items", e);
+            log.error("Failed to get stock items by id", e);
         }
         return Optional.empty();
     }
 
-    @CachePut("products")
+    /**
+     * Counts the products matching the param and the filter per category and per configured price band, in one pass
+     * over the matches. A blank param with an empty filter counts the whole catalog.
+     */
     @Override
-    public Optional<Paged<Product>> getProducts(String param, Pageable pageable) {
+    public Optional<CatalogFacets> getProductFacets(String param, CatalogFilter filter) {
+        return getCachedFacets(SimpleKeyGenerator.generateKey(param, filter), () -> {
+            final List<CriteriaDefinition> criteria = new ArrayList<>();
+            if (param != null && !param.isBlank()) {
+                criteria.add(catalogSearchConfig.getMode() == SearchMode.REGEX ? getProductRegexCriteria(param) : getProductTextCriteria(param));
+            }
+            if (!filter.isEmpty()) {
+                criteria.add(getProductFilterCriteria(filter));
+            }
+            return getProductFacets(criteria);
+        });
+    }
+
+    /**
+     * Counts the given products, which the catalog index matched for the param, so the facets describe the same
+     * results as the page they come with
+     */
+    @Override
+    public Optional<CatalogFacets> getIndexedProductFacets(String param, Collection<Long> ids) {
+        return getCachedFacets("index:" + param, () -> getProductFacets(List.of(Criteria.where("_id").in(ids))));
+    }
+
+    /**
+     * Facets are keyed under the generation of their group, which a catalog change evicts instead of clearing the
+     * region. Concurrent misses of the same facets share one count.
+     */
+    private Optional<CatalogFacets> getCachedFacets(final Object key, final Supplier<Optional<CatalogFacets>> loader) {
+        final Cache cache = cacheManager.getCache("facets");
+        final Long generation = CacheGenerations.current(cache, CATALOG_FACETS);
+        if (generation == null) {
+            return loader.get();
+        }
         try {
-            var criteria = new Criteria();
-            var containsPattern = Pattern.compile("%s(?i)".formatted(param));
-            criteria.orOperator(
-                    Criteria.where("name").regex(containsPattern),
-                    Criteria.where("description").regex(containsPattern),
-                    Criteria.where("category").regex(containsPattern)
+            return Optional.ofNullable(cache.get(SimpleKeyGenerator.generateKey(generation, key), () -> loader.get().orElse(null)));
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the cached facets of {}", key, e);
+        }
+        return loader.get();
+    }
+
+    /**
+     * @param criteria each matched in its own stage, in order, since a text search has to be the first stage
+     */
+    private Optional<CatalogFacets> getProductFacets(final List<CriteriaDefinition> criteria) {
+        try {
+            final List<Double> bounds = catalogSearchConfig.getPriceBands();
+            final List<AggregationOperation> operations = new ArrayList<>();
+            criteria.forEach(definition -> operations.add(Aggregation.match(definition)));
+            /*
+              Products without a price or priced below the first band are left out of the bands rather than falling
+              in the default bucket, which only holds the open ended band from the last bound up
+            */
+            operations.add(
+                    Aggregation.facet(
+                                    Aggregation.group("category").count().as("count"),
+                                    Aggregation.sort(Sort.Direction.DESC, "count")
+                            ).as("categories")
+                            .and(
+                                    Aggregation.match(Criteria.where("price").gte(bounds.get(0))),
+                                    Aggregation.bucket("price")
+                                            .withBoundaries(bounds.toArray())
+                                            .withDefaultBucket("other")
+                                            .andOutputCount().as("count")
+                            ).as("priceBands")
             );
-            final Query query = new Query(criteria).with(pageable);
-            final long total = mongoTemplate.count(query, Product.class);
-            if (total > 0) {
-                final List<Product> productList = mongoTemplate.find(query, Product.class);
-                final int totalPages = Assistant.roundOffToNearestWholeNumber(total, pageable.getPageSize());
-                Paged<Product> paged = new Paged<>(totalPages);
-                paged.getData().addAll(productList);
-                return Optional.of(paged);
+            final Document result = mongoTemplate.aggregate(Aggregation.newAggregation(operations), Product.collection, Document.class).getUniqueMappedResult();
+            if (result == null) {
+                return Optional.empty();
             }
+
+            final List<CatalogFacets.FacetCount> categories = result.getList("categories", Document.class).stream()
+                    .map(document -> new CatalogFacets.FacetCount(document.getString("_id"), ((Number) document.get("count")).longValue()))
+                    .toList();
+            final List<CatalogFacets.PriceBand> priceBands = result.getList("priceBands", Document.class).stream()
+                    .map(document -> {
+                        final long count = ((Number) document.get("count")).longValue();
+                        if (document.get("_id") instanceof Number from) {
+                            final int at = bounds.indexOf(from.doubleValue());
+                            return new CatalogFacets.PriceBand(from.doubleValue(), bounds.get(at + 1), count);
+                        }
+                        return new CatalogFacets.PriceBand(bounds.get(bounds.size() - 1), null, count);
+                    })
+                    .toList();
+            return Optional.of(new CatalogFacets(categories, priceBands));
         } catch (Exception e) {
-            log.error("Failed to get stock items based on param", e);
+            log.error("Failed to get stock item facets", e);
         }
         return Optional.empty();
     }
 
+    static Query getProductSearchQuery(final String param, final CatalogFilter filter, final SearchMode mode) {
+        final Query query;
+        if (param == null || param.isBlank()) {
+            query = new Query();
+        } else {
+            query = mode == SearchMode.REGEX ? getProductRegexQuery(param) : getProductTextQuery(param);
+        }
+        if (!filter.isEmpty()) {
+            query.addCriteria(getProductFilterCriteria(filter));
+        }
+        return query;
+    }
+
+    static Criteria getProductFilterCriteria(final CatalogFilter filter) {
+        final List<Criteria> criteria = new ArrayList<>();
+        if (filter.category() != null && !filter.category().isBlank()) {
+            criteria.add(Criteria.where("category").is(filter.category()));
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            final Criteria price = Criteria.where("price");
+            Optional.ofNullable(filter.minPrice()).ifPresent(price::gte);
+            Optional.ofNullable(filter.maxPrice()).ifPresent(price::lte);
+            criteria.add(price);
+        }
+        if (filter.inStock()) {
+            criteria.add(Criteria.where("stockQuantity").gt(0));
+        }
+        return new Criteria().andOperator(criteria);
+    }
+
+    /**
+     * Matches any of the words in the param against the catalog text index, most relevant first
+     */
+    static Query getProductTextQuery(final String param) {
+        return TextQuery.queryText(getProductTextCriteria(param)).sortByScore();
+    }
+
+    /**
+     * Quotes, hyphens and backslashes are operators to $text, so they are stripped from the user input
+     */
+    static TextCriteria getProductTextCriteria(final String param) {
+        final String[] terms = param.replaceAll("[\"\\\\-]", " ").trim().split("\\s+");
+        return TextCriteria.forDefaultLanguage().matchingAny(terms);
+    }
+
+    /**
+     * The legacy substring scan. The param is quoted so it is matched literally.
+     */
+    static Query getProductRegexQuery(final String param) {
+        return new Query(getProductRegexCriteria(param));
+    }
+
+    static Criteria getProductRegexCriteria(final String param) {
+        var criteria = new Criteria();
+        var containsPattern = Pattern.compile(Pattern.quote(param), Pattern.CASE_INSENSITIVE);
+        criteria.orOperator(
+                Criteria.where("name").regex(containsPattern),
+                Criteria.where("description").regex(containsPattern),
+                Criteria.where("category").regex(containsPattern)
+        );
+        return criteria;
+    }
+
+    /**
+     * Reads one row past the page, which is how {@link #getPaged} tells if another page follows without a count
+     */
+    static Query getPageQuery(final Query query, final Pageable pageable) {
+        return Query.of(query).with(pageable).limit(pageable.getPageSize() + 1);
+    }
+
+    /**
+     * @param rows  the rows read by {@link #getPageQuery}, possibly one more than the page size
+     * @param total number of matches when they were counted, otherwise null
+     * @return empty when the page has no rows
+     */
+    private static <E> Optional<Paged<E>> getPaged(final List<E> rows, final Pageable pageable, final Long total) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        final boolean hasNext = rows.size() > pageable.getPageSize();
+        Paged<E> paged = new Paged<>(total == null ? null : Assistant.roundOffToNearestWholeNumber(total, pageable.getPageSize()));
+        paged.setHasNext(hasNext);
+        paged.getData().addAll(hasNext ? rows.subList(0, pageable.getPageSize()) : rows);
+        return Optional.of(paged);
+    }
+
     private Query getByIdQuery(Object id) {
         var query = new Query();
         query.addCriteria(Criteria.where("_id").is(id));
         return query;
     }
 
+    /**
+     * Counted afresh on every call, neither cached nor shared between concurrent callers. Carts and orders move the
+     * balance all the time and it decides what can be added to a cart, so a caller has to see its own cart changes,
+     * which a count started before them would miss.
+     */
     @Override
     public Integer getAvailableQuantity(Long productId) {
         try {
-            Optional<Product> optionalProduct = productRepo.findById(productId);
+            Optional<Product> optionalProduct = getProduct(productId);
             if (optionalProduct.isPresent()) {
                 final int totalQuantitiesInShoppingCart = quantityFromShoppingCart(productId);
                 int totalQuantitiesFromPendingOrders = quantityFromPendingOrders(productId);
@@ -472,21 +1048,7 @@ public class Brain implements AccountOps, LoginOps,
     }
 
     private int quantityFromPendingOrders(Long productId) {
-        // Unwind the items array
-        UnwindOperation unwind = Aggregation.unwind("cart.items");
-
-        // Match items with the specified product id
-        MatchOperation match = Aggregation.match(
-                Criteria
-                        .where("cart.items._id").is(productId)
-                        .and("orderStatus").is(OrderStatus.PENDING)
-        );
-
-        // Project only the desired product id field
-        AggregationOperation project = Aggregation.project().and("cart.items.quantity").as("quantity");
-
-        // Create the aggregation pipeline
-        Aggregation aggregation = Aggregation.newAggregation(unwind, match, project);
+        Aggregation aggregation = getPendingOrderQuantityAggregation(productId);
 
                 /*
                   Execute the aggregation to return a document with the following model:
@@ -503,18 +1065,27 @@ public class Brain implements AccountOps, LoginOps,
                 .sum();
     }
 
-    private int quantityFromShoppingCart(Long productId) {
-        // Unwind the items array
-        UnwindOperation unwind = Aggregation.unwind("items");
+    /**
+     * The leading match narrows the pipeline to the orders holding the product through the items index, the one after
+     * the unwind drops the other lines of those orders
+     */
+    static Aggregation getPendingOrderQuantityAggregation(final Long productId) {
+        final Criteria criteria = Criteria
+                .where("cart.items._id").is(productId)
+                .and("orderStatus").is(OrderStatus.PENDING);
 
-        // Match items with the specified product id
-        MatchOperation match = Aggregation.match(Criteria.where("items._id").is(productId));
+        // Unwind the items array
+        UnwindOperation unwind = Aggregation.unwind("cart.items");
 
         // Project only the desired product id field
-        AggregationOperation project = Aggregation.project().and("items.quantity").as("quantity");
+        AggregationOperation project = Aggregation.project().and("cart.items.quantity").as("quantity");
 
         // Create the aggregation pipeline
-        Aggregation aggregation = Aggregation.newAggregation(unwind, match, project);
+        return Aggregation.newAggregation(Aggregation.match(criteria), unwind, Aggregation.match(criteria), project);
+    }
+
+    private int quantityFromShoppingCart(Long productId) {
+        Aggregation aggregation = getCartQuantityAggregation(productId);
 
                 /*
                   Execute the aggregation to return a document with the following model:
@@ -531,6 +1102,20 @@ public class Brain implements AccountOps, LoginOps,
                 .sum();
     }
 
+    static Aggregation getCartQuantityAggregation(final Long productId) {
+        // Match items with the specified product id, before the unwind so the items index is used
+        MatchOperation match = Aggregation.match(Criteria.where("items._id").is(productId));
+
+        // Unwind the items array
+        UnwindOperation unwind = Aggregation.unwind("items");
+
+        // Project only the desired product id field
+        AggregationOperation project = Aggregation.project().and("items.quantity").as("quantity");
+
+        // Create the aggregation pipeline
+        return Aggregation.newAggregation(match, unwind, match, project);
+    }
+
     @Override
     public Optional<ShoppingCart> getCustomerShoppingCart(Long userId) {
         try {
@@ -542,7 +1127,7 @@ public class Brain implements AccountOps, LoginOps,
         return Optional.empty();
     }
 
-    private Query getCustomerByIdQuery(Long id) {
+    static Query getCustomerByIdQuery(Long id) {
         var query = new Query();
         query.addCriteria(Criteria.where("customer._id").is(id));
         return query;
@@ -585,140 +1170,600 @@ public class Brain implements AccountOps, LoginOps,
         return Optional.empty();
     }
 
-    @CacheEvict(value = {"orders", "customer_orders"}, allEntries = true)
+    /**
+     * Moves the customer's cart into a pending order. Quantities held by the cart become quantities held by the
+     * pending order, so the stock they reserve is never dropped or counted twice by the available balance.
+     * When transactional the cart removal and the order insert commit together and transient errors are retried.
+     */
     @Override
-    public Optional<Order> create(ShoppingCart shoppingCart) {
+    public Optional<Order> checkout(Long userId) {
+        final Optional<Order> optionalOrder = useTransactions()
+                ? checkoutInTransaction(userId)
+                : checkoutWithoutTransaction(userId);
+        optionalOrder.ifPresent(order -> evictOrderPages(order, false));
+        return optionalOrder;
+    }
+
+    /**
+     * A standalone server rejects transactions, so whether the database is a replica set or a sharded cluster is
+     * checked once and checkout runs without a transaction when it is neither
+     */
+    private boolean useTransactions() {
+        if (!orderCheckoutConfig.isTransactional()) {
+            return false;
+        }
+        Boolean supported = transactionsSupported;
+        if (supported == null) {
+            try {
+                final Document hello = mongoTemplate.executeCommand(new Document("hello", 1));
+                supported = hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+                transactionsSupported = supported;
+                if (!supported) {
+                    log.warn("The database is a standalone server, checkout will run without a transaction");
+                }
+            } catch (Exception e) {
+                log.error("Failed to check whether the database supports transactions", e);
+                return false;
+            }
+        }
+        return supported;
+    }
+
+    private Optional<Order> checkoutInTransaction(final Long userId) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(mongoTransactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Optional.ofNullable(transactionTemplate.execute(status -> {
+                    ShoppingCart shoppingCart = mongoTemplate.findAndRemove(getCustomerByIdQuery(userId), ShoppingCart.class);
+                    if (shoppingCart == null || shoppingCart.getItems().isEmpty()) {
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    return mongoTemplate.insert(newOrder(shoppingCart));
+                }));
+            } catch (Exception e) {
+                if (attempt > orderCheckoutConfig.getMaxRetries() || !isTransientTransactionError(e)) {
+                    log.error("Failed to checkout shopping cart", e);
+                    return Optional.empty();
+                }
+                log.warn("Retrying checkout of user '{}' after a transient error, attempt {}", userId, attempt);
+            }
+        }
+    }
+
+    private Optional<Order> checkoutWithoutTransaction(final Long userId) {
+        ShoppingCart shoppingCart = null;
         try {
-            Order order = new Order();
-            order.setId(UUID.randomUUID());
-            order.setCart(shoppingCart);
-            final double bill = shoppingCart.getItems().stream()
-                    .mapToDouble(ShoppingCart.Item::totalCost)
-                    .sum();
+            shoppingCart = mongoTemplate.findAndRemove(getCustomerByIdQuery(userId), ShoppingCart.class);
+            if (shoppingCart == null || shoppingCart.getItems().isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(mongoTemplate.insert(newOrder(shoppingCart)));
+        } catch (Exception e) {
+            log.error("Failed to checkout shopping cart", e);
+            if (shoppingCart != null) {
+                // Put the cart back so the customer does not lose it to a failed insert
+                shoppingCartRepo.save(shoppingCart);
+            }
+        }
+        return Optional.empty();
+    }
 
-            order.setTotalAmount(Assistant.roundOffToTheNearestDecimal("#.##", bill));
-            order.setOrderStatus(OrderStatus.PENDING);
-            order.setOrderDate(LocalDateTime.now(Assistant.clock));
-            return Optional.of(orderRepo.save(order));
+    private boolean isTransientTransactionError(final Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Order newOrder(final ShoppingCart shoppingCart) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setCart(shoppingCart);
+        final double bill = shoppingCart.getItems().stream()
+                .mapToDouble(ShoppingCart.Item::totalCost)
+                .sum();
+
+        order.setTotalAmount(Assistant.roundOffToTheNearestDecimal("#.##", bill));
+        order.setOrderStatus(OrderStatus.PENDING);
+        order.setOrderDate(LocalDateTime.now(Assistant.clock));
+        return order;
+    }
+
+    /**
+     * Moves the order from one status to another in a single write that only matches while the order still has the
+     * expected status, so of two callers racing to complete the same order exactly one gets it back
+     */
+    @Override
+    public Optional<Order> updateStatus(UUID orderId, OrderStatus from, OrderStatus to) {
+        try {
+            final Update update = Update.update("orderStatus", to);
+            if (to == OrderStatus.PENDING) {
+                update.unset("closedAt").unset("stockDeducted");
+            } else {
+                update.set("closedAt", LocalDateTime.now(Assistant.clock));
+            }
+            if (to == OrderStatus.COMPLETED) {
+                // written with the completion, so an attempt that stops before the deduction leaves it to the next one
+                update.set("stockDeducted", false);
+            }
+            final Order order = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(orderId).and("orderStatus").is(from)),
+                    update,
+                    FindAndModifyOptions.options().returnNew(true),
+                    Order.class
+            );
+            if (order != null) {
+                orderSummaryCache().put(OrderSummary.of(order));
+                evictOrderPages(order, true);
+                return Optional.of(order);
+            }
         } catch (Exception e) {
-            log.error("Failed to create order", e);
+            log.error("Failed to update order status", e);
         }
 
         return Optional.empty();
     }
 
-    @CacheEvict(value = {"orders"}, allEntries = true)
     @Override
-    public Optional<Order> updateStatus(UUID orderId, OrderStatus status) {
+    public Optional<Order> getOrder(UUID orderId) {
         try {
             Optional<Order> optionalOrder = orderRepo.findById(orderId);
             if (optionalOrder.isPresent()) {
-                Order order = optionalOrder.get();
-                order.setOrderStatus(status);
-
-                Optional<Order> orderOptional = Optional.ofNullable(mongoTemplate.findAndReplace(getByIdQuery(orderId), order));
-                if (orderOptional.isPresent()) {
-                    return orderRepo.findById(orderId);
-                }
+                return optionalOrder;
+            }
+            final List<String> archives = getOrderArchives();
+            optionalOrder = getArchivedOrder(orderId, archives);
+            if (optionalOrder.isPresent()) {
+                return optionalOrder;
             }
+            // another instance may have archived the order into a partition this one has not listed yet
+            return getArchivedOrder(orderId, getNewOrderArchives(archives));
         } catch (Exception e) {
-            log.error("Failed to update order status", e);
+            log.error("Failed to get order", e);
         }
+        return Optional.empty();
+    }
 
+    private Optional<Order> getArchivedOrder(final UUID orderId, final List<String> archives) {
+        for (String archive : archives) {
+            Order order = mongoTemplate.findById(orderId, Order.class, archive);
+            if (order != null) {
+                return Optional.of(order);
+            }
+        }
         return Optional.empty();
     }
 
-    @Cacheable("orders")
     @Override
-    public Optional<Paged<Order>> getOrders(Pageable pageable) {
+    public List<Long> getTopSellers(LocalDateTime since, int limit) {
         try {
-            Page<Order> page = orderRepo.findAll(pageable);
-            Paged<Order> paged = new Paged<>(page.getTotalPages());
-            paged.getData().addAll(page.get().toList());
-            return Optional.of(paged);
+            return mongoTemplate.aggregate(getTopSellersAggregation(since, limit), Order.collection, Document.class)
+                    .getMappedResults()
+                    .stream()
+                    .map(document -> document.get("_id", Number.class))
+                    .filter(Objects::nonNull)
+                    .map(Number::longValue)
+                    .toList();
         } catch (Exception e) {
-            log.error("Failed to get all orders", e);
+            log.error("Failed to get top sellers", e);
         }
-        return Optional.empty();
+        return List.of();
     }
 
-    @Cacheable("orders")
+    /**
+     * Canceled orders do not count, the match on status and date is served by the status_date index
+     */
+    static Aggregation getTopSellersAggregation(final LocalDateTime since, final int limit) {
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria
+                        .where("orderStatus").in(OrderStatus.PENDING, OrderStatus.COMPLETED)
+                        .and("orderDate").gte(since)),
+                Aggregation.unwind("cart.items"),
+                Aggregation.group("cart.items._id").sum("cart.items.quantity").as("quantity"),
+                Aggregation.sort(Sort.Direction.DESC, "quantity"),
+                Aggregation.limit(limit)
+        );
+    }
+
+    @CacheEvict(value = {"orders"}, allEntries = true)
     @Override
-    public Optional<Paged<Order>> filterOrders(String param, Pageable pageable) {
+    public int archiveClosedOrders(LocalDateTime closedBefore, int batchSize) {
         try {
-            var criteria = new Criteria();
+            final List<Order> orderList = mongoTemplate.find(getClosedOrdersQuery(closedBefore, batchSize), Order.class);
+            if (orderList.isEmpty()) {
+                return 0;
+            }
 
-            var containsPattern = Pattern.compile("%s(?i)".formatted(param));
-            criteria.orOperator(
-                    Criteria.where("cart.customer.email").regex(containsPattern),
-                    Criteria.where("cart.items.name").regex(containsPattern),
-                    Criteria.where("orderStatus").regex(containsPattern),
-                    Criteria.where("orderDate").regex(containsPattern)
-            );
-            final Query query = new Query(criteria).with(pageable);
+            /*
+              Upsert into the monthly partitions before removing from the hot collection so that a crash in between
+              only leaves copies behind that the next run will overwrite, never lost orders
+            */
+            final Map<String, List<Order>> partitions = orderList.stream()
+                    .collect(Collectors.groupingBy(order -> Order.archiveCollection(order.getClosedAt())));
+            partitions.forEach((archive, orders) -> {
+                indexBootstrapper.ensureIndexes(Order.class, archive);
+                BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class, archive);
+                orders.forEach(order -> bulkOperations.replaceOne(getByIdQuery(order.getId()), order, FindAndReplaceOptions.options().upsert()));
+                bulkOperations.execute();
+            });
+            if (!getOrderArchives().containsAll(partitions.keySet())) {
+                readOrderArchives();
+            }
+
+            final List<UUID> archivedIds = orderList.stream()
+                    .map(Order::getId)
+                    .toList();
+            /*
+              Only orders still closed before the cutoff are removed, one reopened or closed again since it was copied
+              stays in the hot collection and its stale copy is dropped from the partition
+            */
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(archivedIds).andOperator(getClosedOrdersCriteria(closedBefore))), Order.class);
+            final Query remaining = new Query(Criteria.where("_id").in(archivedIds));
+            remaining.fields().include("_id");
+            final Set<UUID> reopenedIds = mongoTemplate.find(remaining, Order.class).stream()
+                    .map(Order::getId)
+                    .collect(Collectors.toSet());
+            orderList.stream()
+                    .filter(order -> reopenedIds.contains(order.getId()))
+                    .forEach(order -> mongoTemplate.remove(getByIdQuery(order.getId()), Order.class, Order.archiveCollection(order.getClosedAt())));
+            return orderList.size() - reopenedIds.size();
+        } catch (Exception e) {
+            log.error("Failed to archive closed orders", e);
+        }
+        return 0;
+    }
+
+    static Query getClosedOrdersQuery(final LocalDateTime closedBefore, final int batchSize) {
+        return new Query(getClosedOrdersCriteria(closedBefore)).with(Sort.by(Sort.Direction.ASC, "closedAt")).limit(batchSize);
+    }
+
+    private static Criteria getClosedOrdersCriteria(final LocalDateTime closedBefore) {
+        return Criteria
+                .where("orderStatus").in(OrderStatus.COMPLETED, OrderStatus.CANCELED)
+                .and("closedAt").lt(closedBefore)
+                // an order still waiting for its stock deduction stays where the next attempt looks for it
+                .and("stockDeducted").ne(false);
+    }
+
+    /**
+     * Listing the collections on every order read is a round trip of its own, so the list is held and read again when
+     * it is older than {@link #ORDER_ARCHIVES_TTL_MILLIS}, this instance creates a partition or a read misses orders
+     * that another instance may have moved into a partition created since
+     *
+     * @return the monthly archive partitions, newest first
+     */
+    private List<String> getOrderArchives() {
+        final List<String> archives = orderArchives;
+        if (archives == null || Assistant.clock.millis() - orderArchivesReadAt > ORDER_ARCHIVES_TTL_MILLIS) {
+            return readOrderArchives();
+        }
+        return archives;
+    }
 
-            final long total = mongoTemplate.count(query, Order.class);
-            if (total > 0) {
-                final List<Order> orderList = mongoTemplate.find(query, Order.class);
-                final int totalPages = Assistant.roundOffToNearestWholeNumber(total, pageable.getPageSize());
-                Paged<Order> paged = new Paged<>(totalPages);
-                paged.getData().addAll(orderList);
-                return Optional.of(paged);
+    /**
+     * @param known the partitions already read
+     * @return the partitions created since, empty when there are none
+     */
+    private List<String> getNewOrderArchives(final List<String> known) {
+        return readOrderArchives().stream()
+                .filter(archive -> !known.contains(archive))
+                .toList();
+    }
+
+    private List<String> readOrderArchives() {
+        final List<String> archives = mongoTemplate.getCollectionNames().stream()
+                .filter(name -> name.startsWith(Order.archivePrefix))
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        orderArchives = archives;
+        orderArchivesReadAt = Assistant.clock.millis();
+        return archives;
+    }
+
+    @Override
+    public Optional<Paged<OrderSummary>> getOrders(Pageable pageable) {
+        return orderPages("orders").get(isSortedByStatus(pageable) ? ORDERS_BY_STATUS : ALL_ORDERS, SimpleKeyGenerator.generateKey(pageable), ids -> getOrderSummaries(ids, false), () -> {
+            try {
+                return getOrderSummaries(new Criteria(), false, pageable, mongoTemplate.estimatedCount(Order.class));
+            } catch (Exception e) {
+                log.error("Failed to get all orders", e);
+            }
+            return Optional.empty();
+        });
+    }
+
+    @Override
+    public Optional<Paged<OrderSummary>> filterOrders(String param, Pageable pageable, boolean total) {
+        return orderPages("orders").get(ORDER_SEARCHES, SimpleKeyGenerator.generateKey(param, pageable, total), ids -> getOrderSummaries(ids, false), () -> {
+            try {
+                final Criteria criteria = getOrderSearchCriteria(param);
+                return getOrderSummaries(criteria, false, pageable, total ? countOrders(criteria, false) : null);
+            } catch (Exception e) {
+                log.error("Failed to get orders based on param", e);
+            }
+            return Optional.empty();
+        });
+    }
+
+    @Override
+    public Optional<Paged<OrderSummary>> getOrders(Long userId, Pageable pageable, boolean total) {
+        return orderPages("customer_orders").get(userId, SimpleKeyGenerator.generateKey(userId, pageable, total), ids -> getOrderSummaries(ids, true), () -> {
+            try {
+                final Criteria criteria = getCustomerOrdersCriteria(userId);
+                return getCustomerOrderSummaries(criteria, pageable, total);
+            } catch (Exception e) {
+                log.error("Failed to get customer orders based on param", e);
             }
+            return Optional.empty();
+        });
+    }
+
+    @Override
+    public Optional<Paged<OrderSummary>> filterOrders(Long userId, String param, Pageable pageable, boolean total) {
+        return orderPages("customer_orders").get(userId, SimpleKeyGenerator.generateKey(userId, param, pageable, total), ids -> getOrderSummaries(ids, true), () -> {
+            try {
+                final Criteria criteria = new Criteria().andOperator(getCustomerOrdersCriteria(userId), getOrderSearchCriteria(param));
+                return getCustomerOrderSummaries(criteria, pageable, total);
+            } catch (Exception e) {
+                log.error("Failed to get customer orders based on param", e);
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * The order summaries by id, the rows of the cached order pages
+     */
+    private EntityCache<UUID, OrderSummary> orderSummaryCache() {
+        return new EntityCache<>(cacheManager.getCache("order_summary"), OrderSummary.class, OrderSummary::id);
+    }
+
+    /**
+     * The all orders pages are grouped by whether a status change can reorder them, with the searches on their own as
+     * a status change can match or unmatch them. A customer's pages are grouped under the customer.
+     */
+    private PageCache<UUID, OrderSummary> orderPages(final String region) {
+        return PageCache.byUuid(cacheManager.getCache(region), orderSummaryCache());
+    }
+
+    private static boolean isSortedByStatus(final Pageable pageable) {
+        return pageable.getSort().getOrderFor("orderStatus") != null;
+    }
+
+    /**
+     * @param statusOnly whether only the status of the order changed, which leaves the order of the date sorted pages
+     */
+    private void evictOrderPages(final Order order, final boolean statusOnly) {
+        if (statusOnly) {
+            orderPages("orders").evict(ORDERS_BY_STATUS, ORDER_SEARCHES);
+        } else {
+            orderPages("orders").evict(ALL_ORDERS, ORDERS_BY_STATUS, ORDER_SEARCHES);
+        }
+        Optional.ofNullable(order.getCart())
+                .map(ShoppingCart::getCustomer)
+                .ifPresent(customer -> orderPages("customer_orders").evict(customer.id()));
+    }
+
+    static Criteria getCustomerOrdersCriteria(final Long userId) {
+        return Criteria.where("cart.customer._id").is(userId);
+    }
+
+    static Criteria getOrderSearchCriteria(final String param) {
+        var criteria = new Criteria();
+
+        var containsPattern = Pattern.compile("%s(?i)".formatted(param));
+        criteria.orOperator(
+                Criteria.where("cart.customer.email").regex(containsPattern),
+                Criteria.where("cart.items.name").regex(containsPattern),
+                Criteria.where("orderStatus").regex(containsPattern),
+                Criteria.where("orderDate").regex(containsPattern)
+        );
+        return criteria;
+    }
+
+    /**
+     * List views only need the order header and its line count, so the page is projected in the database instead of
+     * decoding every embedded cart. A customer's history spans the hot collection and every archive partition, so for
+     * them the match is unioned across all of them before the page is cut.
+     */
+    private Optional<Paged<OrderSummary>> getOrderSummaries(final Criteria criteria, final boolean includeArchives, final Pageable pageable, final Long total) {
+        return getOrderSummaries(criteria, includeArchives ? getOrderArchives() : List.of(), pageable, total);
+    }
+
+    private Optional<Paged<OrderSummary>> getOrderSummaries(final Criteria criteria, final List<String> archives, final Pageable pageable, final Long total) {
+        final Aggregation aggregation = getOrderSummaryAggregation(criteria, archives, pageable);
+        final List<OrderSummary> orderList = mongoTemplate.aggregate(aggregation, Order.collection, OrderSummary.class).getMappedResults();
+        return getPaged(orderList, pageable, total);
+    }
+
+    /**
+     * Archived orders are the oldest of a customer, so a page that reaches the end of the history is run again when
+     * another instance has created a partition since the list was read
+     */
+    private Optional<Paged<OrderSummary>> getCustomerOrderSummaries(final Criteria criteria, final Pageable pageable, final boolean total) {
+        final List<String> archives = getOrderArchives();
+        final Optional<Paged<OrderSummary>> optionalPaged = getOrderSummaries(criteria, archives, pageable, total ? countOrders(criteria, archives) : null);
+        if (optionalPaged.map(Paged::isHasNext).orElse(false) || getNewOrderArchives(archives).isEmpty()) {
+            return optionalPaged;
+        }
+        final List<String> current = getOrderArchives();
+        return getOrderSummaries(criteria, current, pageable, total ? countOrders(criteria, current) : null);
+    }
+
+    /**
+     * The summaries of the given orders, for putting cached pages back together
+     */
+    private List<OrderSummary> getOrderSummaries(final Collection<UUID> ids, final boolean includeArchives) {
+        if (!includeArchives) {
+            return getOrderSummaries(ids, List.of());
+        }
+        final List<String> archives = getOrderArchives();
+        final List<OrderSummary> summaries = getOrderSummaries(ids, archives);
+        if (summaries.size() < new HashSet<>(ids).size() && !getNewOrderArchives(archives).isEmpty()) {
+            return getOrderSummaries(ids, getOrderArchives());
+        }
+        return summaries;
+    }
+
+    private List<OrderSummary> getOrderSummaries(final Collection<UUID> ids, final List<String> archives) {
+        final List<AggregationOperation> operations = getOrderMatchOperations(Criteria.where("_id").in(ids), archives);
+        operations.add(getOrderSummaryProjection());
+        return mongoTemplate.aggregate(Aggregation.newAggregation(operations), Order.collection, OrderSummary.class).getMappedResults();
+    }
+
+    static Aggregation getOrderSummaryAggregation(final Criteria criteria, final List<String> archives, final Pageable pageable) {
+        final List<AggregationOperation> operations = getOrderMatchOperations(criteria, archives);
+        if (pageable.getSort().isSorted()) {
+            operations.add(Aggregation.sort(pageable.getSort()));
+        }
+        operations.add(Aggregation.skip(pageable.getOffset()));
+        operations.add(Aggregation.limit(pageable.getPageSize() + 1));
+        operations.add(getOrderSummaryProjection());
+        return Aggregation.newAggregation(operations);
+    }
+
+    private static AggregationOperation getOrderSummaryProjection() {
+        return Aggregation.project("orderDate", "orderStatus", "totalAmount")
+                .and(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("cart.items").then(Collections.emptyList()))).as("lines");
+    }
+
+    private long countOrders(final Criteria criteria, final boolean includeArchives) {
+        return countOrders(criteria, includeArchives ? getOrderArchives() : List.of());
+    }
+
+    private long countOrders(final Criteria criteria, final List<String> archives) {
+        final List<AggregationOperation> operations = getOrderMatchOperations(criteria, archives);
+        operations.add(Aggregation.count().as("total"));
+        final Document countDocument = mongoTemplate.aggregate(Aggregation.newAggregation(operations), Order.collection, Document.class).getUniqueMappedResult();
+        return countDocument == null ? 0 : ((Number) countDocument.get("total")).longValue();
+    }
+
+    private static List<AggregationOperation> getOrderMatchOperations(final Criteria criteria, final List<String> archives) {
+        final List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(criteria));
+        archives.forEach(archive -> operations.add(UnionWithOperation.unionWith(archive).pipeline(Aggregation.match(criteria))));
+        return operations;
+    }
+
+    @Override
+    public Optional<FulfilmentTask> enqueueFulfilment(UUID orderId) {
+        try {
+            FulfilmentTask fulfilmentTask = new FulfilmentTask();
+            fulfilmentTask.setId(UUID.randomUUID());
+            fulfilmentTask.setOrderId(orderId);
+            fulfilmentTask.setStatus(FulfilmentStatus.QUEUED);
+            fulfilmentTask.setOpen(true);
+            fulfilmentTask.setAttempts(0);
+            fulfilmentTask.setQueuedAt(LocalDateTime.now(Assistant.clock));
+            return Optional.of(fulfilmentTaskRepo.insert(fulfilmentTask));
+        } catch (DuplicateKeyException e) {
+            // another request queued the order first, the open_order index lets only one task per order be open
+            return getOpenFulfilment(orderId);
         } catch (Exception e) {
-            log.error("Failed to get orders based on param", e);
+            log.error("Failed to queue order for fulfilment", e);
         }
         return Optional.empty();
     }
 
-    @Cacheable("customer_orders")
     @Override
-    public Optional<Paged<Order>> getOrders(Long userId, Pageable pageable) {
+    public Optional<FulfilmentTask> getFulfilment(UUID trackingId) {
         try {
-            final Query query = new Query().with(pageable);
-            query.addCriteria(Criteria.where("cart.customer._id").is(userId));
-
-            final long total = mongoTemplate.count(query, Order.class);
-            if (total > 0) {
-                final List<Order> orderList = mongoTemplate.find(query, Order.class);
-                final int totalPages = Assistant.roundOffToNearestWholeNumber(total, pageable.getPageSize());
-                Paged<Order> paged = new Paged<>(totalPages);
-                paged.getData().addAll(orderList);
-                return Optional.of(paged);
-            }
+            return fulfilmentTaskRepo.findById(trackingId);
         } catch (Exception e) {
-            log.error("Failed to get customer orders based on param", e);
+            log.error("Failed to get fulfilment task", e);
         }
         return Optional.empty();
     }
 
-    @Cacheable("customer_orders")
     @Override
-    public Optional<Paged<Order>> filterOrders(Long userId, String param, Pageable pageable) {
+    public Optional<FulfilmentTask> getOpenFulfilment(UUID orderId) {
         try {
-            var criteria = new Criteria();
+            return Optional.ofNullable(mongoTemplate.findOne(getOpenFulfilmentQuery(orderId), FulfilmentTask.class));
+        } catch (Exception e) {
+            log.error("Failed to get open fulfilment task", e);
+        }
+        return Optional.empty();
+    }
 
-            var containsPattern = Pattern.compile("%s(?i)".formatted(param));
-            criteria.orOperator(
-                    Criteria.where("cart.customer.email").regex(containsPattern),
-                    Criteria.where("cart.items.name").regex(containsPattern),
-                    Criteria.where("orderStatus").regex(containsPattern),
-                    Criteria.where("orderDate").regex(containsPattern)
-            );
-            final Query query = new Query(criteria).with(pageable);
-            query.addCriteria(Criteria.where("cart.customer._id").is(userId));
+    static Query getOpenFulfilmentQuery(final UUID orderId) {
+        var query = new Query();
+        query.addCriteria(
+                Criteria
+                        .where("orderId").is(orderId)
+                        .and("status").in(FulfilmentStatus.QUEUED, FulfilmentStatus.PROCESSING)
+        );
+        return query;
+    }
 
-            final long total = mongoTemplate.count(query, Order.class);
-            if (total > 0) {
-                final List<Order> orderList = mongoTemplate.find(query, Order.class);
-                final int totalPages = Assistant.roundOffToNearestWholeNumber(total, pageable.getPageSize());
-                Paged<Order> paged = new Paged<>(totalPages);
-                paged.getData().addAll(orderList);
-                return Optional.of(paged);
+    /**
+     * Claims up to a batch of queued tasks, oldest first, for the calling worker. Tasks claimed by a worker that went
+     * quiet before the stale mark are claimed again. The claim token keeps concurrent workers from taking the same task.
+     */
+    @Override
+    public List<FulfilmentTask> claimFulfilments(int batchSize, LocalDateTime staleBefore) {
+        try {
+            final List<UUID> candidateIds = mongoTemplate.find(getClaimableFulfilmentsQuery(batchSize, staleBefore), FulfilmentTask.class).stream()
+                    .map(FulfilmentTask::getId)
+                    .toList();
+            if (candidateIds.isEmpty()) {
+                return Collections.emptyList();
             }
+
+            final UUID claimToken = UUID.randomUUID();
+            final Query claimQuery = new Query(new Criteria().andOperator(
+                    Criteria.where("_id").in(candidateIds),
+                    getClaimableFulfilmentCriteria(staleBefore)
+            ));
+            final Update update = new Update()
+                    .set("status", FulfilmentStatus.PROCESSING)
+                    .set("claimToken", claimToken)
+                    .set("claimedAt", LocalDateTime.now(Assistant.clock))
+                    .inc("attempts", 1);
+            mongoTemplate.updateMulti(claimQuery, update, FulfilmentTask.class);
+
+            return mongoTemplate.find(getClaimedFulfilmentsQuery(claimToken), FulfilmentTask.class);
         } catch (Exception e) {
-            log.error("Failed to get customer orders based on param", e);
+            log.error("Failed to claim fulfilment tasks", e);
+        }
+        return Collections.emptyList();
+    }
+
+    static Query getClaimableFulfilmentsQuery(final int batchSize, final LocalDateTime staleBefore) {
+        final Query query = new Query(getClaimableFulfilmentCriteria(staleBefore))
+                .with(Sort.by(Sort.Direction.ASC, "queuedAt"))
+                .limit(batchSize);
+        query.fields().include("_id");
+        return query;
+    }
+
+    static Query getClaimedFulfilmentsQuery(final UUID claimToken) {
+        return new Query(Criteria.where("claimToken").is(claimToken));
+    }
+
+    private static Criteria getClaimableFulfilmentCriteria(final LocalDateTime staleBefore) {
+        var criteria = new Criteria();
+        criteria.orOperator(
+                Criteria.where("status").is(FulfilmentStatus.QUEUED),
+                Criteria.where("status").is(FulfilmentStatus.PROCESSING).and("claimedAt").lt(staleBefore)
+        );
+        return criteria;
+    }
+
+    @Override
+    public void closeFulfilment(UUID trackingId, FulfilmentStatus status, String failureReason) {
+        try {
+            final Update update = new Update()
+                    .set("status", status)
+                    .unset("open")
+                    .set("processedAt", LocalDateTime.now(Assistant.clock))
+                    .set("failureReason", failureReason);
+            mongoTemplate.updateFirst(getByIdQuery(trackingId), update, FulfilmentTask.class);
+        } catch (Exception e) {
+            log.error("Failed to close fulfilment task", e);
         }
-        return Optional.empty();
     }
 }
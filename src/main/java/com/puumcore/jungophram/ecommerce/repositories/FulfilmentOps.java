@@ -0,0 +1,31 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import com.puumcore.jungophram.ecommerce.models.constants.FulfilmentStatus;
+import com.puumcore.jungophram.ecommerce.repositories.entities.FulfilmentTask;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:14 AM
+ */
+
+public interface FulfilmentOps {
+
+    Optional<FulfilmentTask> enqueueFulfilment(UUID orderId);
+
+    Optional<FulfilmentTask> getFulfilment(UUID trackingId);
+
+    Optional<FulfilmentTask> getOpenFulfilment(UUID orderId);
+
+    List<FulfilmentTask> claimFulfilments(int batchSize, LocalDateTime staleBefore);
+
+    void closeFulfilment(UUID trackingId, FulfilmentStatus status, String failureReason);
+
+}
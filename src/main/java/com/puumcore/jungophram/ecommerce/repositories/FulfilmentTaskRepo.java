@@ -0,0 +1,19 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import com.puumcore.jungophram.ecommerce.repositories.entities.FulfilmentTask;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:08 AM
+ */
+
+@Repository
+public interface FulfilmentTaskRepo extends MongoRepository<FulfilmentTask, UUID> {
+}
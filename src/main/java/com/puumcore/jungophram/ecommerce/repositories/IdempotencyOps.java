@@ -0,0 +1,40 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import java.util.Optional;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 1:18 PM
+ */
+
+public interface IdempotencyOps {
+
+    String IN_PROGRESS = "IN_PROGRESS";
+
+    /**
+     * Claims the key for the calling request for a short lease, the full ttl only starts once its response is saved
+     *
+     * @param key identifies the client request e.g. the user and their request id
+     * @return true when no other request has claimed the key, false if it is in progress or already processed
+     */
+    boolean reserve(String key);
+
+    /**
+     * @param key identifies the client request
+     * @return the response stored for the key once its request has been processed
+     */
+    Optional<String> getResponse(String key);
+
+    void saveResponse(String key, String response);
+
+    /**
+     * Drops the claim on a key whose request failed so that the client can retry it
+     *
+     * @param key identifies the client request
+     */
+    void release(String key);
+
+}
@@ -0,0 +1,72 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import com.puumcore.jungophram.ecommerce.configs.IdempotencyConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 1:31 PM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Repository
+@ConditionalOnProperty(prefix = "custom.idempotency", name = "store", havingValue = "memory")
+public class InMemoryIdempotencyStore implements IdempotencyOps {
+
+    private final IdempotencyConfig idempotencyConfig;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean reserve(String key) {
+        final Entry reservation = new Entry(IN_PROGRESS, Instant.now().plus(idempotencyConfig.getLease()));
+        return entries.compute(key, (k, entry) -> entry == null || entry.hasExpired() ? reservation : entry) == reservation;
+    }
+
+    @Override
+    public Optional<String> getResponse(String key) {
+        return Optional.ofNullable(entries.get(key))
+                .filter(entry -> !entry.hasExpired())
+                .map(Entry::value)
+                .filter(value -> !IN_PROGRESS.equals(value));
+    }
+
+    @Override
+    public void saveResponse(String key, String response) {
+        entries.put(key, new Entry(response, expiry()));
+    }
+
+    @Override
+    public void release(String key) {
+        entries.remove(key);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        entries.values().removeIf(Entry::hasExpired);
+    }
+
+    private Instant expiry() {
+        return Instant.now().plus(idempotencyConfig.getTtl());
+    }
+
+    private record Entry(String value, Instant expiresAt) {
+
+        boolean hasExpired() {
+            return Instant.now().isAfter(expiresAt);
+        }
+    }
+
+}
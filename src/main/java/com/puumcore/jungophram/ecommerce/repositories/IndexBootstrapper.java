@@ -0,0 +1,203 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import com.puumcore.jungophram.ecommerce.configs.MongoIndexConfig;
+import com.puumcore.jungophram.ecommerce.models.constants.CoverageCheck;
+import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
+import com.puumcore.jungophram.ecommerce.repositories.entities.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Creates the indexes declared on the entities when they are missing, including on the order archive partitions,
+ * then has the {@link QueryCoverageVerifier} check that the queries of {@link Brain} are planned on them.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 7:45 PM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class IndexBootstrapper {
+
+    static final List<Class<?>> ENTITIES = List.of(
+            Account.class, Product.class, ShoppingCart.class, Order.class, LoginSession.class, FulfilmentTask.class
+    );
+
+    private static final int BACKFILL_BATCH_SIZE = 1_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
+    private final MongoIndexConfig mongoIndexConfig;
+    private final QueryCoverageVerifier queryCoverageVerifier;
+
+    private final Set<String> ensured = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The unique indexes stand in for duplicate checks the application does not make, so they are built first and
+     * in the foreground, and the application does not start when one of them can not be built
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void bootstrap() {
+        normalizeEmails();
+        for (Class<?> entity : ENTITIES) {
+            ensureUniqueIndexes(entity, mongoTemplate.getCollectionName(entity));
+        }
+        if (mongoIndexConfig.isBackground() && mongoIndexConfig.getCoverageCheck() != CoverageCheck.FAIL) {
+            new CustomizableThreadFactory("index-bootstrap-").newThread(this::run).start();
+        } else {
+            run();
+        }
+    }
+
+    private void run() {
+        final long start = System.currentTimeMillis();
+        addNameKeys();
+        stampClosedOrders();
+        for (Class<?> entity : ENTITIES) {
+            ensureIndexes(entity, mongoTemplate.getCollectionName(entity));
+        }
+        mongoTemplate.getCollectionNames().stream()
+                .filter(name -> name.startsWith(Order.archivePrefix))
+                .forEach(archive -> ensureIndexes(Order.class, archive));
+        log.info("Indexes ensured on {} collection(s) in {} ms", ensured.size(), System.currentTimeMillis() - start);
+
+        queryCoverageVerifier.verify(mongoIndexConfig.getCoverageCheck());
+    }
+
+    /**
+     * Creates the indexes declared on the entity in the given collection, once per collection for the life of the
+     * application. Existing indexes with the same definition are left as they are.
+     */
+    public void ensureIndexes(final Class<?> entity, final String collection) {
+        if (!ensured.add(collection)) {
+            return;
+        }
+        try {
+            final IndexOperations indexOperations = mongoTemplate.indexOps(collection);
+            new MongoPersistentEntityIndexResolver(mongoMappingContext).resolveIndexFor(entity)
+                    .forEach(indexOperations::ensureIndex);
+        } catch (Exception e) {
+            ensured.remove(collection);
+            log.error("Failed to ensure the indexes of {}", collection, e);
+        }
+    }
+
+    private void ensureUniqueIndexes(final Class<?> entity, final String collection) {
+        final IndexOperations indexOperations = mongoTemplate.indexOps(collection);
+        for (IndexDefinition indexDefinition : new MongoPersistentEntityIndexResolver(mongoMappingContext).resolveIndexFor(entity)) {
+            if (!Boolean.TRUE.equals(indexDefinition.getIndexOptions().get("unique"))) {
+                continue;
+            }
+            try {
+                indexOperations.ensureIndex(indexDefinition);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to build the unique index %s of %s. Remove the duplicates it reports, then start again"
+                        .formatted(indexDefinition.getIndexKeys().toJson(), collection), e);
+            }
+        }
+    }
+
+    /**
+     * Emails saved before they were normalized are lower-cased first, otherwise the unique email index would treat
+     * differently cased copies as distinct
+     */
+    private void normalizeEmails() {
+        try {
+            final long normalized = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("email").regex(Pattern.compile("[A-Z]"))),
+                    AggregationUpdate.update().set("email").toValue(StringOperators.valueOf("email").toLower()),
+                    Account.class
+            ).getModifiedCount();
+            if (normalized > 0) {
+                log.info("Lower-cased the email of {} account(s)", normalized);
+            }
+        } catch (Exception e) {
+            log.error("Failed to normalize the account emails", e);
+        }
+    }
+
+    /**
+     * Accounts saved before the directory search get their name key
+     */
+    private void addNameKeys() {
+        try {
+            final Query query = new Query(Criteria.where("nameKey").exists(false));
+            query.fields().include("_id", "name");
+            BulkOperations bulkOperations = null;
+            int pending = 0;
+            long keyed = 0;
+            try (Stream<Account> accounts = mongoTemplate.stream(query, Account.class)) {
+                for (Account account : (Iterable<Account>) accounts::iterator) {
+                    if (bulkOperations == null) {
+                        bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+                    }
+                    bulkOperations.updateOne(
+                            new Query(Criteria.where("_id").is(account.getUser_id())),
+                            Update.update("nameKey", Account.normalizeName(account.getName()))
+                    );
+                    keyed++;
+                    // flushed in bounded batches so a large collection is not held in one unbounded request
+                    if (++pending == BACKFILL_BATCH_SIZE) {
+                        bulkOperations.execute();
+                        bulkOperations = null;
+                        pending = 0;
+                    }
+                }
+            }
+            if (bulkOperations != null) {
+                bulkOperations.execute();
+            }
+            if (keyed > 0) {
+                log.info("Added the name key of {} account(s)", keyed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to add the account name keys", e);
+        }
+    }
+
+    /**
+     * Orders closed before the close time was recorded take their order date in its place, which is the earliest they
+     * can have been closed, so that archival still finds them
+     */
+    private void stampClosedOrders() {
+        try {
+            final long stamped = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("orderStatus").in(OrderStatus.COMPLETED, OrderStatus.CANCELED).and("closedAt").exists(false)),
+                    AggregationUpdate.update().set("closedAt").toValueOf(Fields.field("orderDate")),
+                    Order.class
+            ).getModifiedCount();
+            if (stamped > 0) {
+                log.info("Stamped the close time of {} order(s) with their order date", stamped);
+            }
+        } catch (Exception e) {
+            log.error("Failed to stamp the close time of closed orders", e);
+        }
+    }
+
+}
@@ -2,7 +2,6 @@ package com.puumcore.jungophram.ecommerce.repositories;
 
 import com.puumcore.jungophram.ecommerce.models.constants.Channel;
 import com.puumcore.jungophram.ecommerce.repositories.entities.LoginSession;
-import org.springframework.cache.annotation.CacheEvict;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -23,7 +22,6 @@ public interface LoginOps {
 
     Optional<LoginSession> getLogin(UUID sessionId);
 
-    @CacheEvict(value = {"user"}, allEntries = true)
     void logout(Long id);
 
 }
@@ -1,13 +1,14 @@
 package com.puumcore.jungophram.ecommerce.repositories;
 
 import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
+import com.puumcore.jungophram.ecommerce.models.objects.OrderSummary;
 import com.puumcore.jungophram.ecommerce.models.objects.Paged;
 import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
-import com.puumcore.jungophram.ecommerce.repositories.entities.ShoppingCart;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,22 +22,29 @@ import java.util.UUID;
 
 public interface OrdersOps {
 
-    @CacheEvict(value = {"orders", "customer_orders"}, allEntries = true)
-    Optional<Order> create(ShoppingCart shoppingCart);
+    Optional<Order> checkout(Long userId);
+
+    /**
+     * @return the updated order, empty when it does not exist or no longer has the expected status
+     */
+    Optional<Order> updateStatus(UUID orderId, OrderStatus from, OrderStatus to);
+
+    Optional<Order> getOrder(UUID orderId);
 
     @CacheEvict(value = {"orders"}, allEntries = true)
-    Optional<Order> updateStatus(UUID orderId, OrderStatus status);
+    int archiveClosedOrders(LocalDateTime closedBefore, int batchSize);
+
+    Optional<Paged<OrderSummary>> getOrders(Pageable pageable);
 
-    @Cacheable("orders")
-    Optional<Paged<Order>> getOrders(Pageable pageable);
+    Optional<Paged<OrderSummary>> filterOrders(String param, Pageable pageable, boolean total);
 
-    @Cacheable("orders")
-    Optional<Paged<Order>> filterOrders(String param, Pageable pageable);
+    Optional<Paged<OrderSummary>> getOrders(Long userId, Pageable pageable, boolean total);
 
-    @Cacheable("customer_orders")
-    Optional<Paged<Order>> getOrders(Long userId, Pageable pageable);
+    Optional<Paged<OrderSummary>> filterOrders(Long userId, String param, Pageable pageable, boolean total);
 
-    @Cacheable("customer_orders")
-    Optional<Paged<Order>> filterOrders(Long userId, String param, Pageable pageable);
+    /**
+     * @return ids of the products sold the most since the given date, best seller first
+     */
+    List<Long> getTopSellers(LocalDateTime since, int limit);
 
 }
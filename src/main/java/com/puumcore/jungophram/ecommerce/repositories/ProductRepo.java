@@ -1,9 +1,13 @@
 package com.puumcore.jungophram.ecommerce.repositories;
 
 import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * @author Puum Core (Mandela Muriithi)<br>
  * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
@@ -13,4 +17,11 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface ProductRepo extends MongoRepository<Product, Long> {
+
+    /**
+     * Keyset page of the catalog, for walking every product without skip
+     */
+    @Query("{ '_id': { '$gt': ?0 } }")
+    List<Product> findAfter(Long productId, Pageable pageable);
+
 }
@@ -0,0 +1,153 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import com.mongodb.ExplainVerbosity;
+import com.puumcore.jungophram.ecommerce.models.constants.CoverageCheck;
+import com.puumcore.jungophram.ecommerce.models.constants.Role;
+import com.puumcore.jungophram.ecommerce.models.constants.SearchMode;
+import com.puumcore.jungophram.ecommerce.models.objects.CatalogFilter;
+import com.puumcore.jungophram.ecommerce.repositories.entities.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Explains the query shapes of {@link Brain} against the live collections and reports those planned as a collection
+ * scan. The free text order search and the regex catalog search scan by design and are left out.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 7:50 PM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class QueryCoverageVerifier {
+
+    private static final String COLLSCAN = "COLLSCAN";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * @throws IllegalStateException when the check fails and a shape is planned as a collection scan
+     */
+    public void verify(final CoverageCheck check) {
+        if (check == null || check == CoverageCheck.OFF) {
+            return;
+        }
+        final List<String> scans = new ArrayList<>();
+        getShapes().forEach((shape, explain) -> {
+            try {
+                if (isCollectionScan(explain.get())) {
+                    scans.add(shape);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to explain the '{}' query shape", shape, e);
+            }
+        });
+        if (scans.isEmpty()) {
+            log.info("All query shapes are covered by an index");
+            return;
+        }
+        if (check == CoverageCheck.FAIL) {
+            throw new IllegalStateException("Query shapes planned as a collection scan: " + scans);
+        }
+        log.warn("Query shapes planned as a collection scan: {}", scans);
+    }
+
+    /**
+     * The query shapes of {@link Brain}, each with sample values, mapped to the explain output of its winning plan
+     */
+    Map<String, Supplier<Document>> getShapes() {
+        final LocalDateTime now = LocalDateTime.now();
+        final Map<String, Supplier<Document>> shapes = new LinkedHashMap<>();
+        shapes.put("account by email", () -> explain(Brain.getUserByEmailQuery("someone@example.com"), Account.class));
+        shapes.put("accounts by name", () -> explain(Brain.getUserSearchQuery("some", null, null, null, 20), Account.class));
+        shapes.put("accounts by role and name", () -> explain(Brain.getUserSearchQuery("some", null, Role.USER, null, 20), Account.class));
+        shapes.put("accounts by role and email", () -> explain(Brain.getUserSearchQuery(null, "some", Role.USER, null, 20), Account.class));
+        shapes.put("active login", () -> explain(Brain.getActiveLoginQuery(0L), LoginSession.class));
+        shapes.put("product by identity", () -> explain(Brain.getProductQuery("name", "description", "category"), Product.class));
+        shapes.put("products by category", () -> explain(Brain.getPageQuery(Brain.getProductSearchQuery(null, new CatalogFilter("category", 10.0, 100.0, true), SearchMode.TEXT), PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "product_id"))), Product.class));
+        shapes.put("products by category and price", () -> explain(Brain.getPageQuery(Brain.getProductSearchQuery(null, new CatalogFilter("category", 10.0, 100.0, false), SearchMode.TEXT), PageRequest.of(0, 20, Sort.by("price"))), Product.class));
+        shapes.put("customer cart", () -> explain(Brain.getCustomerByIdQuery(0L), ShoppingCart.class));
+        shapes.put("quantity in carts", () -> explain(Brain.getCartQuantityAggregation(0L), ShoppingCart.class));
+        shapes.put("quantity in pending orders", () -> explain(Brain.getPendingOrderQuantityAggregation(0L), Order.class));
+        shapes.put("customer orders", () -> explain(Brain.getOrderSummaryAggregation(Brain.getCustomerOrdersCriteria(0L), List.of(), PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "orderDate"))), Order.class));
+        shapes.put("closed orders", () -> explain(Brain.getClosedOrdersQuery(now, 500), Order.class));
+        shapes.put("top sellers", () -> explain(Brain.getTopSellersAggregation(now, 100), Order.class));
+        shapes.put("open fulfilment", () -> explain(Brain.getOpenFulfilmentQuery(UUID.randomUUID()), FulfilmentTask.class));
+        shapes.put("claimable fulfilments", () -> explain(Brain.getClaimableFulfilmentsQuery(50, now), FulfilmentTask.class));
+        shapes.put("claimed fulfilments", () -> explain(Brain.getClaimedFulfilmentsQuery(UUID.randomUUID()), FulfilmentTask.class));
+        return shapes;
+    }
+
+    private Document explain(final Query query, final Class<?> entity) {
+        return explain(query, entity, ExplainVerbosity.QUERY_PLANNER);
+    }
+
+    private Document explain(final Aggregation aggregation, final Class<?> entity) {
+        return explain(aggregation, entity, ExplainVerbosity.QUERY_PLANNER);
+    }
+
+    Document explain(final Query query, final Class<?> entity, final ExplainVerbosity verbosity) {
+        final QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        final MongoPersistentEntity<?> persistentEntity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entity);
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity))
+                .find(queryMapper.getMappedObject(query.getQueryObject(), persistentEntity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), persistentEntity))
+                .projection(queryMapper.getMappedFields(query.getFieldsObject(), persistentEntity))
+                .skip((int) query.getSkip())
+                .limit(query.getLimit())
+                .explain(verbosity);
+    }
+
+    Document explain(final Aggregation aggregation, final Class<?> entity, final ExplainVerbosity verbosity) {
+        final TypeBasedAggregationOperationContext context = new TypeBasedAggregationOperationContext(
+                entity, mongoTemplate.getConverter().getMappingContext(), new QueryMapper(mongoTemplate.getConverter())
+        );
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity))
+                .aggregate(aggregation.toPipeline(context))
+                .explain(verbosity);
+    }
+
+    /**
+     * Looks for a collection scan in the winning plan, wherever the server version nests it in the explain output:
+     * under the winning plan of a find, the query plan of the slot based engine, the $cursor stage of an aggregation
+     * or the winning plan of every shard. Only the rejected plans are skipped.
+     */
+    static boolean isCollectionScan(final Object explained) {
+        if (explained instanceof Document document) {
+            if (COLLSCAN.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                if (!entry.getKey().equals("rejectedPlans") && isCollectionScan(entry.getValue())) {
+                    return true;
+                }
+            }
+        } else if (explained instanceof List<?> list) {
+            for (Object item : list) {
+                if (isCollectionScan(item)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import com.puumcore.jungophram.ecommerce.configs.IdempotencyConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 1:24 PM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Repository
+@ConditionalOnProperty(prefix = "custom.idempotency", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisIdempotencyStore implements IdempotencyOps {
+
+    private static final String KEY_PREFIX = "idempotency:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final IdempotencyConfig idempotencyConfig;
+
+    @Override
+    public boolean reserve(String key) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(KEY_PREFIX.concat(key), IN_PROGRESS, idempotencyConfig.getLease()));
+    }
+
+    @Override
+    public Optional<String> getResponse(String key) {
+        return Optional.ofNullable(stringRedisTemplate.opsForValue().get(KEY_PREFIX.concat(key)))
+                .filter(value -> !IN_PROGRESS.equals(value));
+    }
+
+    @Override
+    public void saveResponse(String key, String response) {
+        stringRedisTemplate.opsForValue().set(KEY_PREFIX.concat(key), response, idempotencyConfig.getTtl());
+    }
+
+    @Override
+    public void release(String key) {
+        stringRedisTemplate.delete(KEY_PREFIX.concat(key));
+    }
+
+}
@@ -1,12 +1,18 @@
 package com.puumcore.jungophram.ecommerce.repositories;
 
+import com.puumcore.jungophram.ecommerce.models.objects.CatalogFacets;
+import com.puumcore.jungophram.ecommerce.models.objects.CatalogFilter;
 import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
 import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * @author Puum Core (Mandela Muriithi)<br>
@@ -20,7 +26,8 @@ public interface StockOps {
     @Cacheable("product")
     Optional<Product> getProduct(String name, String description, String category);
 
-    @CacheEvict(value = {"product", "products"}, allEntries = true)
+    Optional<Product> getProduct(Long id);
+
     Optional<Product> saveProduct(String name, String description, double price, int qty, String category, String url);
 
     Optional<Product> updateProduct(Long id, String name, String description, String category, String url);
@@ -29,10 +36,27 @@ public interface StockOps {
 
     Optional<Product> updateProduct(Long id, Double price);
 
-    @Cacheable("products")
+    boolean deleteProduct(Long id);
+
+    /**
+     * Takes the stock of the given completed orders off their products, at most once per order however often it is
+     * called for it
+     *
+     * @return the orders whose deduction is recorded, now or before
+     */
+    Set<UUID> deductStock(Collection<Order> orders);
+
     Optional<Paged<Product>> getProducts(Pageable pageable);
 
-    @Cacheable("products")
-    Optional<Paged<Product>> getProducts(String param, Pageable pageable);
+    Optional<Paged<Product>> getProducts(String param, CatalogFilter filter, Pageable pageable, boolean total);
+
+    Optional<List<Product>> getProducts(Collection<Long> ids);
+
+    Optional<CatalogFacets> getProductFacets(String param, CatalogFilter filter);
+
+    /**
+     * @param ids the products the catalog index matched for the param, which alone keys the cached facets
+     */
+    Optional<CatalogFacets> getIndexedProductFacets(String param, Collection<Long> ids);
 
 }
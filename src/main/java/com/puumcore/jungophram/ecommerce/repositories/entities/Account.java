@@ -1,15 +1,20 @@
 package com.puumcore.jungophram.ecommerce.repositories.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.puumcore.jungophram.ecommerce.models.constants.Role;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Locale;
 import java.util.StringJoiner;
 
 /**
@@ -24,6 +29,11 @@ import java.util.StringJoiner;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "accounts")
+@CompoundIndexes({
+        @CompoundIndex(name = "name_key", def = "{'nameKey': 1, '_id': 1}"),
+        @CompoundIndex(name = "role_name_key", def = "{'role': 1, 'nameKey': 1, '_id': 1}"),
+        @CompoundIndex(name = "role_email", def = "{'role': 1, 'email': 1}")
+})
 public class Account implements Serializable {
 
     @Serial
@@ -36,18 +46,44 @@ public class Account implements Serializable {
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private Long user_id;
     private String name;
+    /**
+     * The name as given by {@link #normalizeName(String)}, kept in step with it by {@link #setName(String)} so the
+     * directory search can match name prefixes off an index
+     */
+    @JsonIgnore
+    private String nameKey;
+    /**
+     * Always stored as given by {@link #normalizeEmail(String)}
+     */
+    @Indexed(unique = true)
     private String email;
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private transient String password;
     private Role role;
 
     public Account(String name, String email, String password, Role role) {
-        this.name = name;
+        setName(name);
         this.email = email;
         this.password = password;
         this.role = role;
     }
 
+    public void setName(final String name) {
+        this.name = name;
+        this.nameKey = normalizeName(name);
+    }
+
+    public static String normalizeName(final String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Email addresses are matched without regard to case, so they are kept trimmed and in lower case
+     */
+    public static String normalizeEmail(final String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Override
     public String toString() {
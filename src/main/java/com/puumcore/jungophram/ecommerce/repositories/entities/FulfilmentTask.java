@@ -0,0 +1,66 @@
+package com.puumcore.jungophram.ecommerce.repositories.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.puumcore.jungophram.ecommerce.models.constants.FulfilmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:05 AM
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "fulfilment_queue")
+@CompoundIndexes({
+        @CompoundIndex(name = "order_status", def = "{'orderId': 1, 'status': 1}"),
+        @CompoundIndex(name = "open_order", def = "{'orderId': 1}", unique = true, partialFilter = "{'open': true}"),
+        @CompoundIndex(name = "status_queued", def = "{'status': 1, 'queuedAt': 1}"),
+        @CompoundIndex(name = "status_claimed", def = "{'status': 1, 'claimedAt': 1}")
+})
+public class FulfilmentTask implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 390217L;
+
+    public static final String collection = "fulfilment_queue";
+
+    /**
+     * The tracking id handed back to the admin when the completion request is accepted
+     */
+    @Id
+    private UUID id;
+    private UUID orderId;
+    private FulfilmentStatus status;
+    /**
+     * Set while the task is queued or processing and removed when it is closed, so the open_order index allows one
+     * open task per order
+     */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private Boolean open;
+    private Integer attempts;
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @Indexed(sparse = true)
+    private UUID claimToken;
+    private LocalDateTime queuedAt;
+    private LocalDateTime claimedAt;
+    private LocalDateTime processedAt;
+    private String failureReason;
+
+}
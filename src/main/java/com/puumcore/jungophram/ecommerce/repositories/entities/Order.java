@@ -1,16 +1,24 @@
 package com.puumcore.jungophram.ecommerce.repositories.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.io.Serial;
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -25,12 +33,20 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "orders")
+@CompoundIndexes({
+        @CompoundIndex(name = "customer_date", def = "{'cart.customer._id': 1, 'orderDate': -1}"),
+        @CompoundIndex(name = "items_status", def = "{'cart.items._id': 1, 'orderStatus': 1}"),
+        @CompoundIndex(name = "status_date", def = "{'orderStatus': 1, 'orderDate': 1}"),
+        @CompoundIndex(name = "status_closed", def = "{'orderStatus': 1, 'closedAt': 1}")
+})
 public class Order implements Serializable {
 
     @Serial
     private static final long serialVersionUID = 970101L;
 
     public static final String collection = "orders";
+    public static final String archivePrefix = "orders_archive_";
+    private static final DateTimeFormatter ARCHIVE_PARTITION_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
 
     @Id
     private UUID id;
@@ -38,6 +54,48 @@ public class Order implements Serializable {
     private Double totalAmount;
     private OrderStatus orderStatus;
     private LocalDateTime orderDate;
+    /**
+     * When the order was completed or canceled, unset while it is pending
+     */
+    private LocalDateTime closedAt;
+    /**
+     * False from the moment the order is completed until the deduction of its stock is recorded, unset otherwise. A
+     * completed order still false has its deduction finished by the next attempt.
+     */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private Boolean stockDeducted;
+
+    /**
+     * Closed orders are archived into monthly partitions named after the month the order was closed, so an old order
+     * closed late is kept with the orders archived around the same time rather than in a long settled partition
+     *
+     * @param closedAt when the order was completed or canceled
+     * @return the archive collection e.g. orders_archive_2024_07
+     */
+    public static String archiveCollection(final LocalDateTime closedAt) {
+        return archivePrefix.concat(closedAt.format(ARCHIVE_PARTITION_FORMAT));
+    }
+
+    /**
+     * Sums the quantity ordered per product across the given orders so stock is touched once per product
+     *
+     * @param orders the orders being fulfilled
+     * @return product id to total quantity ordered
+     */
+    public static Map<Long, Integer> itemQuantities(final Collection<Order> orders) {
+        final Map<Long, Integer> quantities = new HashMap<>();
+        orders.forEach(order -> order.getCart().getItems()
+                .forEach(item -> quantities.merge(item.id(), item.quantity(), Integer::sum)));
+        return quantities;
+    }
+
+    /**
+     * @return true for a completed order whose stock deduction is not recorded yet
+     */
+    @JsonIgnore
+    public boolean isAwaitingStockDeduction() {
+        return orderStatus == OrderStatus.COMPLETED && Boolean.FALSE.equals(stockDeducted);
+    }
 
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Override
@@ -45,7 +103,7 @@ public class Order implements Serializable {
         if (this == o) return true;
         if (!(o instanceof Order order)) return false;
 
-        return getId().equals(order.getId()) && getCart().equals(order.getCart()) && getTotalAmount().equals(order.getTotalAmount()) && getOrderStatus() == order.getOrderStatus() && getOrderDate().equals(order.getOrderDate());
+        return getId().equals(order.getId()) && getCart().equals(order.getCart()) && getTotalAmount().equals(order.getTotalAmount()) && getOrderStatus() == order.getOrderStatus() && getOrderDate().equals(order.getOrderDate()) && Objects.equals(getClosedAt(), order.getClosedAt()) && Objects.equals(getStockDeducted(), order.getStockDeducted());
     }
 
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
@@ -56,6 +114,8 @@ public class Order implements Serializable {
         result = 31 * result + getTotalAmount().hashCode();
         result = 31 * result + getOrderStatus().hashCode();
         result = 31 * result + getOrderDate().hashCode();
+        result = 31 * result + Objects.hashCode(getClosedAt());
+        result = 31 * result + Objects.hashCode(getStockDeducted());
         return result;
     }
 }
@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.io.Serial;
@@ -23,6 +26,12 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "stock")
+@CompoundIndexes({
+        @CompoundIndex(name = "name_category", def = "{'name': 1, 'category': 1}"),
+        @CompoundIndex(name = "category_price", def = "{'category': 1, 'price': 1}"),
+        @CompoundIndex(name = "price_browse", def = "{'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_browse", def = "{'category': 1, '_id': 1, 'price': 1, 'stockQuantity': 1}")
+})
 public class Product implements Serializable {
 
     @Serial
@@ -35,10 +44,13 @@ public class Product implements Serializable {
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private Long product_id;
 
+    @TextIndexed(weight = 10)
     private String name;
+    @TextIndexed
     private String description;
     private Double price;
     private Integer stockQuantity;
+    @TextIndexed(weight = 5)
     private String category;
     private String imageUrl;
 
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.io.Serial;
@@ -26,6 +28,10 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "shopping_cart")
+@CompoundIndexes({
+        @CompoundIndex(name = "customer", def = "{'customer._id': 1}"),
+        @CompoundIndex(name = "items", def = "{'items._id': 1}")
+})
 public class ShoppingCart implements Serializable {
 
     @Serial
@@ -55,11 +55,15 @@ public class SecurityConfig {
 
                                                 //ORDERS
                                                 "/orders/complete",
+                                                "/orders/complete/async",
+                                                "/orders/fulfilment/byId",
                                                 "/orders/cancel",
                                                 "/orders/filter"
                                         ).hasAuthority(Role.ADMIN.name())
 
-                                        .requestMatchers("/actuator/**").permitAll()
+                                        //ACTUATOR, only the probes are open, the rest reads and drops cache state
+                                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                                        .requestMatchers("/actuator/**").hasAuthority(Role.ADMIN.name())
                                         .anyRequest().authenticated()
                 )
                 .httpBasic(AbstractHttpConfigurer::disable)
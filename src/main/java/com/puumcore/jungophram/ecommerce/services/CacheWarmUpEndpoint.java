@@ -0,0 +1,32 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.models.objects.WarmUpProgress;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Progress of the cache warm-up at {@code /actuator/cachewarmup}, open to admins only like every actuator endpoint but
+ * health
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:20 PM
+ */
+
+@RequiredArgsConstructor
+@Component
+@Endpoint(id = "cachewarmup")
+public class CacheWarmUpEndpoint {
+
+    private final CacheWarmUpService cacheWarmUpService;
+
+    @ReadOperation
+    public WarmUpProgress progress() {
+        return cacheWarmUpService.getProgress();
+    }
+
+}
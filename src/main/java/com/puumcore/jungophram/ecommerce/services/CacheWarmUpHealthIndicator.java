@@ -0,0 +1,37 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.models.objects.WarmUpProgress;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Out of service while the caches are warming up, part of the readiness group so no traffic is routed in meanwhile
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:20 PM
+ */
+
+@RequiredArgsConstructor
+@Component
+public class CacheWarmUpHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmUpService cacheWarmUpService;
+
+    @Override
+    public Health health() {
+        final WarmUpProgress progress = cacheWarmUpService.getProgress();
+        final Health.Builder builder = cacheWarmUpService.isSettled() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("state", progress.state())
+                .withDetail("done", progress.done())
+                .withDetail("tasks", progress.tasks())
+                .withDetail("failed", progress.failed())
+                .build();
+    }
+
+}
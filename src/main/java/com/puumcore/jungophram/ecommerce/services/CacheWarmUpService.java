@@ -0,0 +1,123 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.configs.CacheWarmUpConfig;
+import com.puumcore.jungophram.ecommerce.custom.Assistant;
+import com.puumcore.jungophram.ecommerce.models.constants.WarmUpState;
+import com.puumcore.jungophram.ecommerce.models.objects.WarmUpProgress;
+import com.puumcore.jungophram.ecommerce.repositories.OrdersOps;
+import com.puumcore.jungophram.ecommerce.repositories.StockOps;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the caches after a start so the first requests do not all go to the database: the leading catalog pages and the
+ * best selling products. Accounts are left out, login and the account lookups read them from the database since the
+ * password hash does not survive the shared cache. The readiness probe stays down until the warm-up is over or has run
+ * past its timeout.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:20 PM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class CacheWarmUpService {
+
+    private final StockOps stockOps;
+    private final OrdersOps ordersOps;
+    private final CacheWarmUpConfig cacheWarmUpConfig;
+
+    private final AtomicInteger tasks = new AtomicInteger();
+    private final AtomicInteger done = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile WarmUpState state = WarmUpState.PENDING;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        if (!cacheWarmUpConfig.isEnabled()) {
+            state = WarmUpState.DISABLED;
+            return;
+        }
+        new CustomizableThreadFactory("cache-warm-up-").newThread(this::run).start();
+    }
+
+    void run() {
+        startedAt = LocalDateTime.now(Assistant.clock);
+        state = WarmUpState.RUNNING;
+
+        final List<Runnable> loads = new ArrayList<>();
+        for (int page = 0; page < cacheWarmUpConfig.getCatalogPages(); page++) {
+            // the same pageable the catalog listing resolves by default, which is the cache key
+            final PageRequest pageable = PageRequest.of(page, cacheWarmUpConfig.getPageSize(), Sort.by(Sort.Direction.DESC, "product_id"));
+            loads.add(() -> stockOps.getProducts(pageable));
+        }
+        if (cacheWarmUpConfig.getTopSellers() > 0) {
+            loads.add(() -> {
+                final LocalDateTime since = LocalDateTime.now(Assistant.clock).minus(cacheWarmUpConfig.getTopSellersWindow());
+                final List<Long> productIds = ordersOps.getTopSellers(since, cacheWarmUpConfig.getTopSellers());
+                if (!productIds.isEmpty()) {
+                    stockOps.getProducts(productIds);
+                }
+            });
+        }
+        tasks.set(loads.size());
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(
+                Math.max(1, cacheWarmUpConfig.getParallelism()),
+                new CustomizableThreadFactory("cache-warm-up-")
+        );
+        loads.forEach(load -> executorService.execute(() -> {
+            try {
+                load.run();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.warn("Failed a cache warm-up load", e);
+            } finally {
+                done.incrementAndGet();
+            }
+        }));
+        executorService.shutdown();
+        try {
+            state = executorService.awaitTermination(cacheWarmUpConfig.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    ? WarmUpState.DONE
+                    : WarmUpState.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = WarmUpState.TIMED_OUT;
+        }
+        finishedAt = LocalDateTime.now(Assistant.clock);
+        log.info("Cache warm-up {} after {} of {} load(s), {} failed", state, done.get(), tasks.get(), failed.get());
+    }
+
+    /**
+     * @return whether the warm-up no longer holds readiness back
+     */
+    public boolean isSettled() {
+        return state != WarmUpState.PENDING && state != WarmUpState.RUNNING;
+    }
+
+    public WarmUpProgress getProgress() {
+        return new WarmUpProgress(state, tasks.get(), done.get(), failed.get(), startedAt, finishedAt);
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.google.gson.Gson;
+import com.puumcore.jungophram.ecommerce.configs.CacheConfig;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Keeps the in-memory catalog index and suggestions of every replica in step with the catalog. A change is applied to
+ * this replica and, when the regions are distributed across replicas, published as JSON on a Redis channel next to the
+ * cache invalidations, so each replica other than the origin applies it too. A replica that misses a message keeps the old
+ * terms and keys of that product until it is rebuilt at its next start.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:05 PM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class CatalogChanges implements MessageListener {
+
+    /**
+     * @param previous the product before the change, null when it was added
+     * @param current  the product after the change, null when it was removed
+     */
+    record Change(String origin, Product previous, Product current) {
+    }
+
+    private final String origin = UUID.randomUUID().toString();
+    private final Gson gson = new Gson();
+
+    private final CatalogIndexService catalogIndexService;
+    private final CatalogSuggestService catalogSuggestService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheConfig cacheConfig;
+
+    public void added(final Product product) {
+        publish(null, product);
+    }
+
+    public void removed(final Product product) {
+        publish(product, null);
+    }
+
+    public void replaced(final Product previous, final Product current) {
+        publish(previous, current);
+    }
+
+    private void publish(final Product previous, final Product current) {
+        apply(previous, current);
+        if (!cacheConfig.getDistributed().isEnabled()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(cacheConfig.getDistributed().getCatalogChannel(), gson.toJson(new Change(origin, previous, current)));
+        } catch (RuntimeException e) {
+            log.warn("Failed to announce a catalog change, other replicas keep their index and suggestions of product {} until they restart",
+                    (current == null ? previous : current).getProduct_id(), e);
+        }
+    }
+
+    private void apply(final Product previous, final Product current) {
+        if (previous != null && current != null) {
+            catalogIndexService.replace(previous, current);
+            catalogSuggestService.replace(previous, current);
+        } else if (current != null) {
+            catalogIndexService.add(current);
+            catalogSuggestService.add(current);
+        } else if (previous != null) {
+            catalogIndexService.remove(previous);
+            catalogSuggestService.remove(previous);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            final Change change = gson.fromJson(new String(message.getBody(), StandardCharsets.UTF_8), Change.class);
+            if (change == null || origin.equals(change.origin())) {
+                return;
+            }
+            apply(change.previous(), change.current());
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply a catalog change announced by another replica", e);
+        }
+    }
+
+}
@@ -0,0 +1,399 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.configs.CatalogSearchConfig;
+import com.puumcore.jungophram.ecommerce.custom.Assistant;
+import com.puumcore.jungophram.ecommerce.models.constants.SearchMode;
+import com.puumcore.jungophram.ecommerce.models.objects.CatalogFacets;
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import com.puumcore.jungophram.ecommerce.repositories.ProductRepo;
+import com.puumcore.jungophram.ecommerce.repositories.StockOps;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index of the catalog. Every word of a product's name, description and category maps to the
+ * sorted ids of the products that contain it, held as delta encoded varints in a byte array rather than a set of
+ * boxed longs. Catalog writes reach it on every replica through {@link CatalogChanges}.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 4:10 PM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class CatalogIndexService {
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final int MAX_QUERY_TERMS = 32;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepo productRepo;
+    private final StockOps stockOps;
+    private final CatalogSearchConfig catalogSearchConfig;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Guarded by the lock, as are the changes recorded while a build is running
+     */
+    private Map<String, Postings> index = new HashMap<>();
+    private List<Consumer<Map<String, Postings>>> changesDuringBuild;
+    private volatile boolean ready = false;
+
+    /**
+     * @return true once the index is built and searches can be served from it
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Builds a new index off the lock and swaps it in, so searches and catalog writes are not held up while the
+     * catalog is read. Changes made while it builds are recorded and replayed onto the new index before the swap;
+     * replaying one the build already saw leaves the index as it was.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void build() {
+        if (catalogSearchConfig.getMode() != SearchMode.INDEX) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            changesDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<String, Postings> built = null;
+        try {
+            final long start = System.currentTimeMillis();
+            built = new HashMap<>();
+            long products = 0;
+            long lastId = 0;
+            List<Product> batch;
+            do {
+                batch = productRepo.findAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("product_id")));
+                for (Product product : batch) {
+                    index(built, product);
+                    lastId = product.getProduct_id();
+                }
+                products += batch.size();
+            } while (batch.size() == LOAD_BATCH_SIZE);
+            built.values().forEach(Postings::trim);
+            log.info("Catalog index built in {} ms with {} products and {} terms, using about {} KB",
+                    System.currentTimeMillis() - start, products, built.size(), footprint(built) / 1024);
+        } catch (Exception e) {
+            log.error("Failed to build the catalog index, searches will use the database", e);
+            built = null;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built != null) {
+                    for (Consumer<Map<String, Postings>> change : changesDuringBuild) {
+                        change.accept(built);
+                    }
+                    index = built;
+                    ready = true;
+                }
+                changesDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void add(final Product product) {
+        apply(target -> index(target, product));
+    }
+
+    public void remove(final Product product) {
+        apply(target -> unindex(target, product));
+    }
+
+    /**
+     * Moves a product from the terms of its previous version to those of the current one
+     */
+    public void replace(final Product previous, final Product current) {
+        apply(target -> {
+            unindex(target, previous);
+            index(target, current);
+        });
+    }
+
+    private void apply(final Consumer<Map<String, Postings>> change) {
+        if (catalogSearchConfig.getMode() != SearchMode.INDEX) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (changesDuringBuild != null) {
+                changesDuringBuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Products matching any of the words in the param, ranked by how many of the words they contain and then newest
+     * first. Only the requested page is read from the database.
+     */
+    public Optional<Paged<Product>> search(final String param, final Pageable pageable) {
+        final long[] ranked;
+        lock.readLock().lock();
+        try {
+            ranked = rank(tokenize(param).stream().limit(MAX_QUERY_TERMS).toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ranked.length == 0) {
+            return Optional.empty();
+        }
+
+        final int from = (int) Math.min(pageable.getOffset(), ranked.length);
+        final int to = Math.min(from + pageable.getPageSize(), ranked.length);
+        final List<Long> pageIds = Arrays.stream(ranked, from, to).boxed().toList();
+        if (pageIds.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<List<Product>> optionalProducts = stockOps.getProducts(pageIds);
+        if (optionalProducts.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // the index already knows every match, so the total comes for free
+        Paged<Product> paged = new Paged<>(Assistant.roundOffToNearestWholeNumber((long) ranked.length, pageable.getPageSize()));
+        paged.setHasNext(to < ranked.length);
+        final Map<Long, Product> productMap = optionalProducts.get().stream()
+                .collect(Collectors.toMap(Product::getProduct_id, Function.identity()));
+        pageIds.stream()
+                .map(productMap::get)
+                .filter(Objects::nonNull)
+                .forEach(paged.getData()::add);
+        return Optional.of(paged);
+    }
+
+    /**
+     * Counts the facets of every product the param matches in the index, the same set the search pages through
+     */
+    public Optional<CatalogFacets> facets(final String param) {
+        final long[] ranked;
+        lock.readLock().lock();
+        try {
+            ranked = rank(tokenize(param).stream().limit(MAX_QUERY_TERMS).toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ranked.length == 0) {
+            return Optional.of(new CatalogFacets(List.of(), List.of()));
+        }
+        return stockOps.getIndexedProductFacets(param.trim(), Arrays.stream(ranked).boxed().toList());
+    }
+
+    private long[] rank(final List<String> terms) {
+        final List<long[]> matches = terms.stream()
+                .map(index::get)
+                .filter(Objects::nonNull)
+                .map(Postings::decode)
+                .toList();
+        if (matches.isEmpty()) {
+            return new long[0];
+        }
+        if (matches.size() == 1) {
+            final long[] ids = matches.get(0);
+            reverse(ids);
+            return ids;
+        }
+
+        // count how many of the terms each product matched, then order by that count and the id packed into one long
+        final long[] all = matches.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        final long[] keys = new long[all.length];
+        int distinct = 0;
+        for (int i = 0; i < all.length; ) {
+            int j = i;
+            while (j < all.length && all[j] == all[i]) {
+                j++;
+            }
+            keys[distinct++] = ((long) (j - i) << 56) | all[i];
+            i = j;
+        }
+        final long[] ranked = Arrays.copyOf(keys, distinct);
+        Arrays.sort(ranked);
+        reverse(ranked);
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] &= (1L << 56) - 1;
+        }
+        return ranked;
+    }
+
+    private static void index(final Map<String, Postings> index, final Product product) {
+        for (String term : terms(product)) {
+            index.computeIfAbsent(term, key -> new Postings()).add(product.getProduct_id());
+        }
+    }
+
+    private static void unindex(final Map<String, Postings> index, final Product product) {
+        for (String term : terms(product)) {
+            Postings postings = index.get(term);
+            if (postings != null && postings.remove(product.getProduct_id())) {
+                index.remove(term);
+            }
+        }
+    }
+
+    private static Set<String> terms(final Product product) {
+        final Set<String> terms = new HashSet<>();
+        terms.addAll(tokenize(product.getName()));
+        terms.addAll(tokenize(product.getDescription()));
+        terms.addAll(tokenize(product.getCategory()));
+        return terms;
+    }
+
+    static Set<String> tokenize(final String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static void reverse(final long[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            long value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * Approximate heap held by the index: the posting bytes plus the term strings, map entries and posting headers
+     */
+    private static long footprint(final Map<String, Postings> index) {
+        long bytes = 0;
+        for (Map.Entry<String, Postings> entry : index.entrySet()) {
+            bytes += 32 + 24 + 16 + entry.getKey().length();
+            bytes += entry.getValue().footprint();
+        }
+        return bytes + 16L * index.size();
+    }
+
+    /**
+     * Sorted product ids of one term. Ids come from a sequence, so new products land at the tail and are appended in
+     * place; anything else decodes and re-encodes the list.
+     */
+    static final class Postings {
+
+        private byte[] bytes = new byte[8];
+        private int length = 0;
+        private int size = 0;
+        private long last = 0;
+
+        void add(final long id) {
+            if (id > last) {
+                append(id - last);
+                last = id;
+                size++;
+                return;
+            }
+            final long[] ids = decode();
+            int at = Arrays.binarySearch(ids, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            final long[] merged = new long[ids.length + 1];
+            System.arraycopy(ids, 0, merged, 0, at);
+            merged[at] = id;
+            System.arraycopy(ids, at, merged, at + 1, ids.length - at);
+            encode(merged);
+        }
+
+        /**
+         * @return true when the list is left empty
+         */
+        boolean remove(final long id) {
+            final long[] ids = decode();
+            final int at = Arrays.binarySearch(ids, id);
+            if (at >= 0) {
+                final long[] kept = new long[ids.length - 1];
+                System.arraycopy(ids, 0, kept, 0, at);
+                System.arraycopy(ids, at + 1, kept, at, ids.length - at - 1);
+                encode(kept);
+            }
+            return size == 0;
+        }
+
+        long[] decode() {
+            final long[] ids = new long[size];
+            long value = 0;
+            int position = 0;
+            for (int i = 0; i < size; i++) {
+                long delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    delta |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                value += delta;
+                ids[i] = value;
+            }
+            return ids;
+        }
+
+        void trim() {
+            if (bytes.length > length) {
+                bytes = Arrays.copyOf(bytes, length);
+            }
+        }
+
+        long footprint() {
+            return 40 + 16 + bytes.length;
+        }
+
+        private void encode(final long[] ids) {
+            bytes = new byte[Math.max(8, ids.length * 2)];
+            length = 0;
+            size = 0;
+            last = 0;
+            for (long id : ids) {
+                append(id - last);
+                last = id;
+                size++;
+            }
+        }
+
+        private void append(long delta) {
+            if (length + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length + (bytes.length >> 1), length + 10));
+            }
+            while ((delta & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            bytes[length++] = (byte) delta;
+        }
+
+    }
+
+}
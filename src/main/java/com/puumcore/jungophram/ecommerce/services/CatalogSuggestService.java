@@ -0,0 +1,396 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.configs.CatalogSuggestConfig;
+import com.puumcore.jungophram.ecommerce.models.objects.Suggestion;
+import com.puumcore.jungophram.ecommerce.repositories.ProductRepo;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Typeahead over product names and categories, answered from memory. The keys are held in a radix trie where every
+ * node keeps the ids of the newest products below it, so a lookup is a walk down the prefix and never touches the
+ * database. Keys start at every word of a name or category, so typing any word of it finds the product. Catalog
+ * writes reach it on every replica through {@link CatalogChanges}.
+ *
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 5:05 PM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class CatalogSuggestService {
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final long[] NONE = new long[0];
+
+    private final ProductRepo productRepo;
+    private final CatalogSuggestConfig catalogSuggestConfig;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Guarded by the lock, as are the changes recorded while a build is running
+     */
+    private Trie trie;
+    private List<Consumer<Trie>> changesDuringBuild;
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Builds a new trie off the lock and swaps it in, so lookups and catalog writes are not held up while the catalog
+     * is read. Changes made while it builds are recorded and replayed onto the new trie before the swap; replaying one
+     * the build already saw leaves the trie as it was.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void build() {
+        if (!catalogSuggestConfig.isEnabled()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            changesDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Trie built = null;
+        try {
+            final long start = System.currentTimeMillis();
+            built = new Trie(catalogSuggestConfig.getTopK());
+            long lastId = 0;
+            List<Product> batch;
+            do {
+                batch = productRepo.findAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("product_id")));
+                for (Product product : batch) {
+                    built.insert(product);
+                    lastId = product.getProduct_id();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+            log.info("Catalog suggestions built in {} ms for {} products", System.currentTimeMillis() - start, built.suggestions.size());
+        } catch (Exception e) {
+            log.error("Failed to build the catalog suggestions", e);
+            built = null;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built != null) {
+                    for (Consumer<Trie> change : changesDuringBuild) {
+                        change.accept(built);
+                    }
+                    trie = built;
+                    ready = true;
+                }
+                changesDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void add(final Product product) {
+        apply(target -> target.insert(product));
+    }
+
+    public void remove(final Product product) {
+        apply(target -> target.delete(product));
+    }
+
+    public void replace(final Product previous, final Product current) {
+        apply(target -> {
+            target.delete(previous);
+            target.insert(current);
+        });
+    }
+
+    private void apply(final Consumer<Trie> change) {
+        if (!catalogSuggestConfig.isEnabled()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (trie != null) {
+                change.accept(trie);
+            }
+            if (changesDuringBuild != null) {
+                changesDuringBuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param prefix what has been typed so far
+     * @return the newest products with a name or category word starting with the prefix, newest first
+     */
+    public List<Suggestion> suggest(final String prefix) {
+        final String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie == null ? List.of() : trie.lookup(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<String> keys(final Product product) {
+        final Set<String> keys = new HashSet<>();
+        wordSuffixes(product.getName(), keys);
+        wordSuffixes(product.getCategory(), keys);
+        return keys;
+    }
+
+    private static void wordSuffixes(final String text, final Set<String> keys) {
+        final String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+    }
+
+    private static String normalize(final String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private static int commonPrefix(final String label, final String key, final int offset) {
+        int i = 0;
+        while (i < label.length() && offset + i < key.length() && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static long[] insertSorted(final long[] values, final long value) {
+        int at = Arrays.binarySearch(values, value);
+        if (at >= 0) {
+            return values;
+        }
+        at = -at - 1;
+        final long[] inserted = new long[values.length + 1];
+        System.arraycopy(values, 0, inserted, 0, at);
+        inserted[at] = value;
+        System.arraycopy(values, at, inserted, at + 1, values.length - at);
+        return inserted;
+    }
+
+    private static long[] removeSorted(final long[] values, final long value) {
+        final int at = Arrays.binarySearch(values, value);
+        if (at < 0) {
+            return values;
+        }
+        if (values.length == 1) {
+            return NONE;
+        }
+        final long[] kept = new long[values.length - 1];
+        System.arraycopy(values, 0, kept, 0, at);
+        System.arraycopy(values, at + 1, kept, at, values.length - at - 1);
+        return kept;
+    }
+
+    /**
+     * The trie and the suggestions its ids stand for
+     */
+    private static final class Trie {
+
+        private final Node root = new Node("");
+        private final Map<Long, Suggestion> suggestions = new HashMap<>();
+        private final int topK;
+
+        private Trie(final int topK) {
+            this.topK = topK;
+        }
+
+        private List<Suggestion> lookup(final String key) {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.child(key.charAt(i));
+                if (child == null) {
+                    return List.of();
+                }
+                final int common = commonPrefix(child.label, key, i);
+                if (i + common < key.length() && common < child.label.length()) {
+                    return List.of();
+                }
+                node = child;
+                i += common;
+            }
+            return Arrays.stream(node.top)
+                    .mapToObj(suggestions::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+
+        private void insert(final Product product) {
+            final long id = product.getProduct_id();
+            suggestions.put(id, new Suggestion(id, product.getName(), product.getCategory()));
+            keys(product).forEach(key -> insert(key, id));
+        }
+
+        private void delete(final Product product) {
+            final long id = product.getProduct_id();
+            suggestions.remove(id);
+            keys(product).forEach(key -> delete(key, id));
+        }
+
+        private void insert(final String key, final long id) {
+            Node node = root;
+            node.offer(id, topK);
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.child(key.charAt(i));
+                if (child == null) {
+                    child = new Node(key.substring(i));
+                    node.addChild(child);
+                } else {
+                    final int common = commonPrefix(child.label, key, i);
+                    if (common < child.label.length()) {
+                        child = node.split(child, common);
+                    }
+                }
+                child.offer(id, topK);
+                node = child;
+                i += child.label.length();
+            }
+            node.ids = insertSorted(node.ids, id);
+        }
+
+        private void delete(final String key, final long id) {
+            final Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            path.push(node);
+            int i = 0;
+            while (i < key.length()) {
+                node = node.child(key.charAt(i));
+                if (node == null || !key.startsWith(node.label, i)) {
+                    return;
+                }
+                path.push(node);
+                i += node.label.length();
+            }
+            node.ids = removeSorted(node.ids, id);
+
+            // walk back up from the end of the key, dropping nodes left empty and refilling the top ids of the rest
+            Node below = null;
+            for (Node current : path) {
+                if (below != null && below.ids.length == 0 && below.children.length == 0) {
+                    current.removeChild(below);
+                }
+                current.recompute(topK);
+                below = current;
+            }
+        }
+
+    }
+
+    /**
+     * A trie node. The label is the run of characters on the edge into it, ids are the products whose key ends here
+     * in ascending order, and top holds the newest ids anywhere below it in descending order.
+     */
+    private static final class Node {
+
+        private static final Node[] LEAF = new Node[0];
+
+        private String label;
+        private Node[] children = LEAF;
+        private long[] ids = NONE;
+        private long[] top = NONE;
+
+        private Node(final String label) {
+            this.label = label;
+        }
+
+        private Node child(final char first) {
+            for (Node child : children) {
+                if (child.label.charAt(0) == first) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private void addChild(final Node child) {
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+        }
+
+        private void removeChild(final Node child) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    final Node[] kept = new Node[children.length - 1];
+                    System.arraycopy(children, 0, kept, 0, i);
+                    System.arraycopy(children, i + 1, kept, i, children.length - i - 1);
+                    children = kept.length == 0 ? LEAF : kept;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Splits the edge into the child after the given number of characters, returning the new middle node
+         */
+        private Node split(final Node child, final int at) {
+            final Node middle = new Node(child.label.substring(0, at));
+            child.label = child.label.substring(at);
+            middle.children = new Node[]{child};
+            middle.top = child.top.clone();
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    children[i] = middle;
+                }
+            }
+            return middle;
+        }
+
+        private void offer(final long id, final int k) {
+            int at = 0;
+            while (at < top.length && top[at] > id) {
+                at++;
+            }
+            if ((at < top.length && top[at] == id) || at >= k) {
+                return;
+            }
+            final long[] offered = new long[Math.min(top.length + 1, k)];
+            System.arraycopy(top, 0, offered, 0, at);
+            offered[at] = id;
+            System.arraycopy(top, at, offered, at + 1, offered.length - at - 1);
+            top = offered;
+        }
+
+        private void recompute(final int k) {
+            top = NONE;
+            for (int i = ids.length - 1; i >= 0 && i >= ids.length - k; i--) {
+                offer(ids[i], k);
+            }
+            for (Node child : children) {
+                for (long id : child.top) {
+                    offer(id, k);
+                }
+            }
+        }
+
+    }
+
+}
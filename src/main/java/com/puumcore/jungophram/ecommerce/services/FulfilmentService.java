@@ -0,0 +1,187 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.configs.OrderFulfilmentConfig;
+import com.puumcore.jungophram.ecommerce.custom.Assistant;
+import com.puumcore.jungophram.ecommerce.exceptions.BadRequestException;
+import com.puumcore.jungophram.ecommerce.exceptions.FailureException;
+import com.puumcore.jungophram.ecommerce.exceptions.NotFoundException;
+import com.puumcore.jungophram.ecommerce.models.constants.FulfilmentStatus;
+import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
+import com.puumcore.jungophram.ecommerce.models.objects.Form;
+import com.puumcore.jungophram.ecommerce.models.objects.GenericRequest;
+import com.puumcore.jungophram.ecommerce.models.objects.GenericResponse;
+import com.puumcore.jungophram.ecommerce.repositories.FulfilmentOps;
+import com.puumcore.jungophram.ecommerce.repositories.OrdersOps;
+import com.puumcore.jungophram.ecommerce.repositories.StockOps;
+import com.puumcore.jungophram.ecommerce.repositories.entities.FulfilmentTask;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 11:40 AM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class FulfilmentService extends Assistant {
+
+    private final FulfilmentOps fulfilmentOps;
+    private final OrdersOps ordersOps;
+    private final StockOps stockOps;
+    private final OrderFulfilmentConfig orderFulfilmentConfig;
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private ExecutorService workers;
+
+    @PostConstruct
+    void startWorkers() {
+        if (orderFulfilmentConfig.isAsync()) {
+            workers = Executors.newFixedThreadPool(orderFulfilmentConfig.getWorkers(), new CustomizableThreadFactory("fulfilment-worker-"));
+        }
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+
+    public final GenericResponse<FulfilmentTask> complete(final GenericRequest<Form.OrderById> request) {
+        log.info("Request={}", request);
+
+        if (!orderFulfilmentConfig.isAsync()) {
+            throw new BadRequestException("Asynchronous order fulfilment is not enabled. Complete the order directly instead");
+        }
+
+        Form.OrderById body = request.getBody();
+        Optional<Order> optionalOrder = ordersOps.getOrder(body.id());
+        if (optionalOrder.isEmpty()) {
+            throw new NotFoundException("You are yet to make an order with us");
+        }
+        if (optionalOrder.get().getOrderStatus() != OrderStatus.PENDING && !optionalOrder.get().isAwaitingStockDeduction()) {
+            throw new BadRequestException("Sorry, only pending orders can be handled. Your target order has a read only status.");
+        }
+
+        final FulfilmentTask fulfilmentTask = fulfilmentOps.getOpenFulfilment(body.id())
+                .or(() -> fulfilmentOps.enqueueFulfilment(body.id()))
+                .orElseThrow(() -> new FailureException("We couldn't queue your order for fulfilment at this time"));
+
+        GenericResponse<FulfilmentTask> response = buildSuccessfulResponse(request.getHeader(), "Your order has been queued for fulfilment. Use the tracking id to follow its progress", fulfilmentTask);
+        log.info("Response={}", response);
+        return response;
+    }
+
+    public final GenericResponse<FulfilmentTask> byId(final GenericRequest<Form.OrderById> request) {
+        log.info("Request={}", request);
+
+        Form.OrderById body = request.getBody();
+        Optional<FulfilmentTask> optionalFulfilmentTask = fulfilmentOps.getFulfilment(body.id());
+        if (optionalFulfilmentTask.isEmpty()) {
+            throw new NotFoundException("No such fulfilment request found");
+        }
+
+        GenericResponse<FulfilmentTask> response = buildSuccessfulResponse(request.getHeader(), "Fulfilment request found", optionalFulfilmentTask.get());
+        log.info("Response={}", response);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${custom.orders.fulfilment.poll-interval}")
+    public void poll() {
+        if (orderFulfilmentConfig.isAsync()) {
+            startWorker();
+        }
+    }
+
+    /**
+     * Brings up another worker unless the pool is already fully busy. Workers call this themselves when they claim a
+     * full batch, so the pool only grows while there is a backlog.
+     */
+    private void startWorker() {
+        if (activeWorkers.incrementAndGet() > orderFulfilmentConfig.getWorkers()) {
+            activeWorkers.decrementAndGet();
+            return;
+        }
+        workers.execute(this::drain);
+    }
+
+    private void drain() {
+        try {
+            List<FulfilmentTask> fulfilmentTasks = claim();
+            while (!fulfilmentTasks.isEmpty()) {
+                if (fulfilmentTasks.size() >= orderFulfilmentConfig.getBatchSize()) {
+                    startWorker();
+                }
+                fulfil(fulfilmentTasks);
+                fulfilmentTasks = claim();
+            }
+        } catch (Exception e) {
+            log.error("Fulfilment worker stopped unexpectedly", e);
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    private List<FulfilmentTask> claim() {
+        final LocalDateTime staleBefore = LocalDateTime.now(clock).minus(orderFulfilmentConfig.getClaimTimeout());
+        return fulfilmentOps.claimFulfilments(orderFulfilmentConfig.getBatchSize(), staleBefore);
+    }
+
+    /**
+     * Each order is moved from pending to completed in a write that only one caller can win, which also marks its
+     * stock as not yet deducted. The deduction is taken at most once per order and recorded on it, so a second task
+     * for the same order, or this task claimed again after its claim timed out, finds the order no longer pending and
+     * fails, unless the order is still waiting for its deduction, which it then finishes. A task whose deduction is not
+     * recorded, because it failed or the worker died, is left open and the next claim of it finishes the deduction.
+     */
+    void fulfil(final List<FulfilmentTask> fulfilmentTasks) {
+        final Map<UUID, Order> completedOrders = new LinkedHashMap<>();
+        final Set<UUID> orderIds = new HashSet<>();
+        fulfilmentTasks.forEach(fulfilmentTask -> {
+            if (!orderIds.add(fulfilmentTask.getOrderId())) {
+                fulfilmentOps.closeFulfilment(fulfilmentTask.getId(), FulfilmentStatus.FAILED, "The order is already being fulfilled by another request");
+                return;
+            }
+            Optional<Order> optionalOrder = ordersOps.updateStatus(fulfilmentTask.getOrderId(), OrderStatus.PENDING, OrderStatus.COMPLETED)
+                    .or(() -> ordersOps.getOrder(fulfilmentTask.getOrderId()).filter(Order::isAwaitingStockDeduction));
+            if (optionalOrder.isEmpty()) {
+                fulfilmentOps.closeFulfilment(fulfilmentTask.getId(), FulfilmentStatus.FAILED, "No pending order found, only pending orders can be completed");
+                return;
+            }
+            completedOrders.put(fulfilmentTask.getId(), optionalOrder.get());
+        });
+        if (completedOrders.isEmpty()) {
+            return;
+        }
+
+        // Orders in the same batch share a single round trip for their stock writes
+        final Set<UUID> deducted = stockOps.deductStock(completedOrders.values());
+        completedOrders.forEach((trackingId, order) -> {
+            if (deducted.contains(order.getId())) {
+                fulfilmentOps.closeFulfilment(trackingId, FulfilmentStatus.DONE, null);
+            }
+        });
+        if (deducted.size() < completedOrders.size()) {
+            log.warn("The stock of {} completed order(s) is not deducted yet, their tasks stay open for the next claim", completedOrders.size() - deducted.size());
+        }
+        log.info("Fulfilled {} of {} queued order(s)", deducted.size(), fulfilmentTasks.size());
+    }
+
+}
@@ -134,10 +134,6 @@ public class IamService extends Assistant {
         }
         accountOps.validatePassword(body.getPassword());
 
-        accountOps.getUser(body.getEmail())
-                .ifPresent(account -> {
-                    throw new BadRequestException("Duplicate user found. Please provide a unique email.");
-                });
         final String encodedPassword = passwordEncoder.encode(body.getPassword());
         Optional<Account> accountOptional = accountOps.createUser(body.getName(), body.getEmail(), encodedPassword, body.getRole());
         if (accountOptional.isEmpty()) {
@@ -0,0 +1,52 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.configs.OrderArchiveConfig;
+import com.puumcore.jungophram.ecommerce.custom.Assistant;
+import com.puumcore.jungophram.ecommerce.repositories.OrdersOps;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author Puum Core (Mandela Muriithi)<br>
+ * <a href = "https://github.com/puumCore">GitHub: Mandela Muriithi</a><br>
+ * Project: ecommerce
+ * @version 1.x
+ * @since 10/19/2026 9:40 AM
+ */
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class OrderArchivalService {
+
+    private final OrdersOps ordersOps;
+    private final OrderArchiveConfig orderArchiveConfig;
+
+    /**
+     * Moves orders completed or canceled longer ago than the configured age out of the hot collection in bounded batches,
+     * leaving it sized by the open orders
+     */
+    @Scheduled(cron = "${custom.orders.archive.cron}", zone = "Africa/Nairobi")
+    public void archiveClosedOrders() {
+        if (!orderArchiveConfig.isEnabled()) {
+            return;
+        }
+        final LocalDateTime closedBefore = LocalDateTime.now(Assistant.clock).minus(orderArchiveConfig.getMinAge());
+        final int batchSize = orderArchiveConfig.getBatchSize();
+
+        int archived = 0;
+        for (int batch = 0; batch < orderArchiveConfig.getMaxBatches(); batch++) {
+            final int moved = ordersOps.archiveClosedOrders(closedBefore, batchSize);
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        log.info("Archived {} order(s) closed before {}", archived, closedBefore);
+    }
+
+}
@@ -1,6 +1,9 @@
 package com.puumcore.jungophram.ecommerce.services;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.puumcore.jungophram.ecommerce.custom.Assistant;
+import com.puumcore.jungophram.ecommerce.custom.ETags;
 import com.puumcore.jungophram.ecommerce.exceptions.BadRequestException;
 import com.puumcore.jungophram.ecommerce.exceptions.FailureException;
 import com.puumcore.jungophram.ecommerce.exceptions.NotFoundException;
@@ -8,17 +11,19 @@ import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
 import com.puumcore.jungophram.ecommerce.models.objects.Form;
 import com.puumcore.jungophram.ecommerce.models.objects.GenericRequest;
 import com.puumcore.jungophram.ecommerce.models.objects.GenericResponse;
+import com.puumcore.jungophram.ecommerce.models.objects.OrderSummary;
 import com.puumcore.jungophram.ecommerce.models.objects.Paged;
 import com.puumcore.jungophram.ecommerce.repositories.*;
 import com.puumcore.jungophram.ecommerce.repositories.entities.Account;
 import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
-import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
 import com.puumcore.jungophram.ecommerce.repositories.entities.ShoppingCart;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 
@@ -36,29 +41,28 @@ import java.util.Optional;
 public class OrdersService extends Assistant {
 
     private final OrdersOps ordersOps;
-    private final OrderRepo orderRepo;
     private final ShoppingOps shoppingOps;
     private final AccountOps accountOps;
-    private final ShoppingCartRepo shoppingCartRepo;
-    private final ProductRepo productRepo;
     private final StockOps stockOps;
+    private final IdempotencyOps idempotencyOps;
+    private final ObjectMapper objectMapper;
 
-    public final GenericResponse<Order> byId(final GenericRequest<Form.OrderById> request) {
+    public final ResponseEntity<GenericResponse<Order>> byId(final String ifNoneMatch, final GenericRequest<Form.OrderById> request) {
         log.info("Request={}", request);
 
         Form.OrderById body = request.getBody();
-        Optional<Order> optionalOrder = orderRepo.findById(body.id());
+        Optional<Order> optionalOrder = ordersOps.getOrder(body.id());
         if (optionalOrder.isEmpty()) {
             throw new NotFoundException("You are yet to make an order with us");
         }
         Order order = optionalOrder.get();
 
-        GenericResponse<Order> response = buildSuccessfulResponse(request.getHeader(), "Order found", order);
+        ResponseEntity<GenericResponse<Order>> response = buildConditionalResponse(ifNoneMatch, ETags.of(order), () -> buildSuccessfulResponse(request.getHeader(), "Order found", order));
         log.info("Response={}", response);
         return response;
     }
 
-    public final GenericResponse<Paged<Order>> getOrders(final String jwt, final Pageable pageable, final GenericRequest<Form.Search> request) {
+    public final GenericResponse<Paged<OrderSummary>> getOrders(final String jwt, final Pageable pageable, final GenericRequest<Form.Search> request) {
         log.info("Request={}", request);
 
         Account userFromToken = accountOps.getUserFromToken(jwt);
@@ -71,17 +75,17 @@ public class OrdersService extends Assistant {
                     }
                 });
 
-        Optional<Paged<Order>> optionalPaged = Optional.ofNullable(body.param()).orElse("").isBlank() ? ordersOps.getOrders(userFromToken.getUser_id(), pageable) : ordersOps.filterOrders(userFromToken.getUser_id(), body.param(), pageable);
-        if (optionalPaged.isEmpty() || optionalPaged.get().getTotalPages() == 0) {
+        Optional<Paged<OrderSummary>> optionalPaged = Optional.ofNullable(body.param()).orElse("").isBlank() ? ordersOps.getOrders(userFromToken.getUser_id(), pageable, body.total()) : ordersOps.filterOrders(userFromToken.getUser_id(), body.param(), pageable, body.total());
+        if (optionalPaged.isEmpty()) {
             throw new NotFoundException("No orders found");
         }
 
-        GenericResponse<Paged<Order>> response = buildSuccessfulResponse(request.getHeader(), "Here are the requested orders", optionalPaged.get());
+        GenericResponse<Paged<OrderSummary>> response = buildSuccessfulResponse(request.getHeader(), "Here are the requested orders", optionalPaged.get());
         log.info("Response={}", response);
         return response;
     }
 
-    public final GenericResponse<Paged<Order>> getOrders(final Pageable pageable, final GenericRequest<Form.Search> request) {
+    public final GenericResponse<Paged<OrderSummary>> getOrders(final Pageable pageable, final GenericRequest<Form.Search> request) {
         log.info("Request={}", request);
 
         Form.Search body = request.getBody();
@@ -92,12 +96,12 @@ public class OrdersService extends Assistant {
                     }
                 });
 
-        Optional<Paged<Order>> optionalPaged = Optional.ofNullable(body.param()).orElse("").isBlank() ? ordersOps.getOrders(pageable) : ordersOps.filterOrders(body.param(), pageable);
-        if (optionalPaged.isEmpty() || optionalPaged.get().getTotalPages() == 0) {
+        Optional<Paged<OrderSummary>> optionalPaged = Optional.ofNullable(body.param()).orElse("").isBlank() ? ordersOps.getOrders(pageable) : ordersOps.filterOrders(body.param(), pageable, body.total());
+        if (optionalPaged.isEmpty()) {
             throw new NotFoundException("No orders found");
         }
 
-        GenericResponse<Paged<Order>> response = buildSuccessfulResponse(request.getHeader(), "Here are the requested orders", optionalPaged.get());
+        GenericResponse<Paged<OrderSummary>> response = buildSuccessfulResponse(request.getHeader(), "Here are the requested orders", optionalPaged.get());
         log.info("Response={}", response);
         return response;
     }
@@ -106,34 +110,27 @@ public class OrdersService extends Assistant {
         log.info("Request={}", request);
 
         Form.OrderById body = request.getBody();
-        Optional<Order> optionalOrder = orderRepo.findById(body.id());
+        Optional<Order> optionalOrder = ordersOps.getOrder(body.id());
         if (optionalOrder.isEmpty()) {
             throw new NotFoundException("You are yet to make an order with us");
         }
         Order order = optionalOrder.get();
-        if (order.getOrderStatus() != OrderStatus.PENDING) {
+        // a completed order still waiting for its stock to be deducted is completed again to finish the deduction
+        final boolean resuming = status == OrderStatus.COMPLETED && order.isAwaitingStockDeduction();
+        if (order.getOrderStatus() != OrderStatus.PENDING && !resuming) {
             throw new BadRequestException("Sorry, only pending orders can be handled. Your target order has a read only status.");
         }
 
-        ShoppingCart shoppingCart = order.getCart();
-
-        if (status == OrderStatus.COMPLETED) {
-            shoppingCart.getItems()
-                    .forEach(item -> productRepo.findById(item.id())
-                            .ifPresent(product -> {
-                                final int updatedQuantity = product.getStockQuantity() - item.quantity();
-                                Optional<Product> optionalProduct = stockOps.updateProduct(item.id(), Math.max(updatedQuantity, 0));
-                                if (optionalProduct.isEmpty()) {
-                                    throw new FailureException("We are unable to process this order");
-                                }
-                            }));
-        }
-
-        Optional<Order> orderOptional = ordersOps.updateStatus(body.id(), status);
+        // The order leaves pending before its stock is touched, and the deduction is taken at most once per order
+        Optional<Order> orderOptional = resuming ? optionalOrder : ordersOps.updateStatus(body.id(), OrderStatus.PENDING, status);
         if (orderOptional.isEmpty()) {
             throw new FailureException("Couldn't update your order to %s".formatted(status.name().toLowerCase(Locale.ROOT)));
         }
 
+        if (status == OrderStatus.COMPLETED && !stockOps.deductStock(List.of(orderOptional.get())).contains(body.id())) {
+            throw new FailureException("Your order is completed but its stock is not deducted yet, complete it again to finish");
+        }
+
         GenericResponse<Order> response = buildSuccessfulResponse(request.getHeader(), "Successfully %s your order".formatted(status.name().toLowerCase(Locale.ROOT)), orderOptional.get());
         log.info("Response={}", response);
         return response;
@@ -144,6 +141,40 @@ public class OrdersService extends Assistant {
 
         Account userFromToken = accountOps.getUserFromToken(jwt);
 
+        /*
+          A client retrying after a timeout sends the same request id, so the first outcome is replayed instead of
+          checking out a second time or failing on the cart that the first attempt already consumed
+        */
+        final String idempotencyKey = "orders:make:%d:%s".formatted(userFromToken.getUser_id(), request.getHeader().requestId());
+        if (!idempotencyOps.reserve(idempotencyKey)) {
+            Optional<GenericResponse<Order>> optionalReplay = idempotencyOps.getResponse(idempotencyKey)
+                    .flatMap(this::readStoredResponse);
+            if (optionalReplay.isEmpty()) {
+                throw new BadRequestException("An order for this request is still being processed. Retry it shortly");
+            }
+            log.info("Replayed response={}", optionalReplay.get());
+            return optionalReplay.get();
+        }
+
+        final GenericResponse<Order> response;
+        try {
+            response = checkout(userFromToken, request);
+        } catch (RuntimeException | Error e) {
+            idempotencyOps.release(idempotencyKey);
+            throw e;
+        }
+
+        try {
+            idempotencyOps.saveResponse(idempotencyKey, objectMapper.writeValueAsString(response));
+        } catch (Exception e) {
+            log.error("Failed to store the response of request '{}' for replay", request.getHeader().requestId(), e);
+            idempotencyOps.release(idempotencyKey);
+        }
+        log.info("Response={}", response);
+        return response;
+    }
+
+    private GenericResponse<Order> checkout(final Account userFromToken, final GenericRequest<Void> request) {
         Optional<ShoppingCart> optionalShoppingCart = shoppingOps.getCustomerShoppingCart(userFromToken.getUser_id());
         if (optionalShoppingCart.isEmpty()) {
             throw new NotFoundException("You don't have a shopping cart with us");
@@ -153,16 +184,22 @@ public class OrdersService extends Assistant {
             throw new NotFoundException("You cart is empty at the moment. Add one or more items to continue");
         }
 
-        shoppingCartRepo.deleteById(shoppingCart.getId());
-
-        Optional<Order> orderOptional = ordersOps.create(shoppingCart);
+        Optional<Order> orderOptional = ordersOps.checkout(userFromToken.getUser_id());
         if (orderOptional.isEmpty()) {
             throw new FailureException("We couldn't create an order with from your shopping cart at this time");
         }
 
-        GenericResponse<Order> response = buildSuccessfulResponse(request.getHeader(), "Successfully created an order with your shopping cart", orderOptional.get());
-        log.info("Response={}", response);
-        return response;
+        return buildSuccessfulResponse(request.getHeader(), "Successfully created an order with your shopping cart", orderOptional.get());
+    }
+
+    private Optional<GenericResponse<Order>> readStoredResponse(final String storedResponse) {
+        try {
+            return Optional.of(objectMapper.readValue(storedResponse, new TypeReference<GenericResponse<Order>>() {
+            }));
+        } catch (Exception e) {
+            log.error("Failed to read a stored response", e);
+        }
+        return Optional.empty();
     }
 
 }
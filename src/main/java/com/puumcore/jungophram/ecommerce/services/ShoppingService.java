@@ -9,8 +9,8 @@ import com.puumcore.jungophram.ecommerce.models.objects.Form;
 import com.puumcore.jungophram.ecommerce.models.objects.GenericRequest;
 import com.puumcore.jungophram.ecommerce.models.objects.GenericResponse;
 import com.puumcore.jungophram.ecommerce.repositories.AccountOps;
-import com.puumcore.jungophram.ecommerce.repositories.ProductRepo;
 import com.puumcore.jungophram.ecommerce.repositories.ShoppingOps;
+import com.puumcore.jungophram.ecommerce.repositories.StockOps;
 import com.puumcore.jungophram.ecommerce.repositories.entities.Account;
 import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
 import com.puumcore.jungophram.ecommerce.repositories.entities.ShoppingCart;
@@ -18,10 +18,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Puum Core (Mandela Muriithi)<br>
@@ -37,14 +36,14 @@ import java.util.Set;
 public class ShoppingService extends Assistant {
 
     private final AccountOps accountOps;
-    private final ProductRepo productRepo;
+    private final StockOps stockOps;
     private final ShoppingOps shoppingOps;
 
     public final GenericResponse<Integer> availableBalance(final GenericRequest<Form.ById> request) {
         log.info("Request={}", request);
 
         Form.ById body = request.getBody();
-        if (!productRepo.existsById(body.id())) {
+        if (stockOps.getProduct(body.id()).isEmpty()) {
             throw new NotFoundException("No such product found");
         }
 
@@ -89,13 +88,14 @@ public class ShoppingService extends Assistant {
             throw new NotFoundException("You cart is empty at the moment. Add one or more items to continue");
         }
 
+        final Set<Long> knownProductIds = getProductsById(body).keySet();
         final BatchSummary<Object> batchSummary = new BatchSummary<>();
         body.forEach(productId -> {
             if (shoppingCart.getItems().stream().noneMatch(item -> productId.equals(item.id()))) {
                 batchSummary.getFailed().add(new BatchSummary.BatchItem<>(productId, "This item isn't included in your shopping cart"));
                 return;
             }
-            if (!productRepo.existsById(productId)) {
+            if (!knownProductIds.contains(productId)) {
                 batchSummary.getFailed().add(new BatchSummary.BatchItem<>(productId, "No such product found"));
                 return;
             }
@@ -133,10 +133,11 @@ public class ShoppingService extends Assistant {
             throw new BadRequestException("One or more product items are required to proceed");
         }
 
+        final Map<Long, Product> products = getProductsById(body.stream().map(Form.CartItem::productId).toList());
         final BatchSummary<Object> batchSummary = new BatchSummary<>();
         List<ShoppingCart.Item> itemList = new ArrayList<>();
         body.forEach(cartItem -> {
-            Optional<Product> optionalProduct = productRepo.findById(cartItem.productId());
+            Optional<Product> optionalProduct = Optional.ofNullable(products.get(cartItem.productId()));
             if (optionalProduct.isEmpty()) {
                 batchSummary.getFailed().add(new BatchSummary.BatchItem<>(cartItem.productId(), "No such product found"));
                 return;
@@ -174,4 +175,16 @@ public class ShoppingService extends Assistant {
         return response;
     }
 
+    /**
+     * Looks up all the products of a request at once, through the product cache
+     */
+    private Map<Long, Product> getProductsById(final Collection<Long> ids) {
+        Optional<List<Product>> optionalProducts = stockOps.getProducts(ids);
+        if (optionalProducts.isEmpty()) {
+            throw new FailureException("We are unable to look up the products at the moment");
+        }
+        return optionalProducts.get().stream()
+                .collect(Collectors.toMap(Product::getProduct_id, Function.identity()));
+    }
+
 }
@@ -1,18 +1,20 @@
 package com.puumcore.jungophram.ecommerce.services;
 
 import com.puumcore.jungophram.ecommerce.custom.Assistant;
+import com.puumcore.jungophram.ecommerce.custom.ETags;
 import com.puumcore.jungophram.ecommerce.exceptions.BadRequestException;
 import com.puumcore.jungophram.ecommerce.exceptions.FailureException;
 import com.puumcore.jungophram.ecommerce.exceptions.NotFoundException;
 import com.puumcore.jungophram.ecommerce.models.objects.*;
-import com.puumcore.jungophram.ecommerce.repositories.ProductRepo;
 import com.puumcore.jungophram.ecommerce.repositories.StockOps;
 import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -30,19 +32,67 @@ import java.util.Set;
 public class StockService extends Assistant {
 
     private final StockOps stockOps;
-    private final ProductRepo productRepo;
-
-    public final GenericResponse<Paged<Product>> filter(final Pageable pageable, final GenericRequest<Form.Search> request) {
+    private final CatalogIndexService catalogIndexService;
+    private final CatalogSuggestService catalogSuggestService;
+    private final CatalogChanges catalogChanges;
+
+    /**
+     * Cached pages come with their entity tag, so an unchanged page is answered without hashing or writing it
+     */
+    public final ResponseEntity<GenericResponse<Paged<Product>>> filter(final Pageable pageable, final String ifNoneMatch, final GenericRequest<Form.CatalogSearch> request) {
         log.info("Request={}", request);
 
-        Form.Search body = request.getBody();
+        Form.CatalogSearch body = request.getBody();
+
+        CatalogFilter filter = body.filter();
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice() > filter.maxPrice()) {
+            throw new BadRequestException("The minimum price can not be above the maximum price");
+        }
 
-        Optional<Paged<Product>> optionalPaged = Optional.ofNullable(body.param()).orElse("").isBlank() ? stockOps.getProducts(pageable) : stockOps.getProducts(body.param(), pageable);
+        Optional<Paged<Product>> optionalPaged;
+        final boolean searching = !Optional.ofNullable(body.param()).orElse("").isBlank();
+        final boolean indexed = searching && filter.isEmpty() && catalogIndexService.isReady();
+        if (!searching && filter.isEmpty()) {
+            optionalPaged = stockOps.getProducts(pageable);
+        } else if (indexed) {
+            optionalPaged = catalogIndexService.search(body.param(), pageable);
+        } else {
+            optionalPaged = stockOps.getProducts(body.param(), filter, pageable, body.total());
+        }
         if (optionalPaged.isEmpty()) {
             throw new NotFoundException("No products found");
         }
 
-        GenericResponse<Paged<Product>> response = buildSuccessfulResponse(request.getHeader(), "Here are the requested products", optionalPaged.get());
+        Paged<Product> paged = optionalPaged.get();
+        String etag = paged.getEtag() == null ? ETags.of(paged) : paged.getEtag();
+        if (body.facets()) {
+            // facets are counted over the same matches as the page, from the index when the page came from it
+            Optional<CatalogFacets> optionalFacets = indexed
+                    ? catalogIndexService.facets(body.param())
+                    : stockOps.getProductFacets(Optional.ofNullable(body.param()).orElse("").trim(), filter);
+            paged = new CatalogPage<>(paged, optionalFacets.orElse(null));
+            etag = ETags.of(etag, optionalFacets.orElse(null));
+        }
+
+        final Paged<Product> page = paged;
+        ResponseEntity<GenericResponse<Paged<Product>>> response = buildConditionalResponse(ifNoneMatch, etag, () -> buildSuccessfulResponse(request.getHeader(), "Here are the requested products", page));
+        log.info("Response={}", response);
+        return response;
+    }
+
+    public final GenericResponse<List<Suggestion>> suggest(final GenericRequest<Form.Search> request) {
+        log.info("Request={}", request);
+
+        if (!catalogSuggestService.isReady()) {
+            throw new FailureException("Product suggestions are not available at the moment");
+        }
+
+        List<Suggestion> suggestions = catalogSuggestService.suggest(Optional.ofNullable(request.getBody().param()).orElse(""));
+        if (suggestions.isEmpty()) {
+            throw new NotFoundException("No suggestions found");
+        }
+
+        GenericResponse<List<Suggestion>> response = buildSuccessfulResponse(request.getHeader(), "Here are the suggested products", suggestions);
         log.info("Response={}", response);
         return response;
     }
@@ -50,27 +100,31 @@ public class StockService extends Assistant {
     public final GenericResponse<Product> delete(final Long id, final GenericRequest<Void> request) {
         log.info("Request={}", request);
 
-        Optional<Product> optionalProduct = productRepo.findById(id);
+        Optional<Product> optionalProduct = stockOps.getProduct(id);
         if (optionalProduct.isEmpty()) {
             throw new NotFoundException("No such product found");
         }
 
-        productRepo.deleteById(id);
+        if (!stockOps.deleteProduct(id)) {
+            throw new FailureException("The stock item couldn't be deleted");
+        }
+        catalogChanges.removed(optionalProduct.get());
 
         GenericResponse<Product> response = buildSuccessfulResponse(request.getHeader(), "Stock item successfully deleted. Attached is the deleted item", optionalProduct.get());
         log.info("Response={}", response);
         return response;
     }
 
-    public final GenericResponse<Product> byId(final Long id, final GenericRequest<Void> request) {
+    public final ResponseEntity<GenericResponse<Product>> byId(final Long id, final String ifNoneMatch, final GenericRequest<Void> request) {
         log.info("Request={}", request);
 
-        Optional<Product> optionalProduct = productRepo.findById(id);
+        Optional<Product> optionalProduct = stockOps.getProduct(id);
         if (optionalProduct.isEmpty()) {
             throw new NotFoundException("No such product found");
         }
+        Product product = optionalProduct.get();
 
-        GenericResponse<Product> response = buildSuccessfulResponse(request.getHeader(), "Stock item found", optionalProduct.get());
+        ResponseEntity<GenericResponse<Product>> response = buildConditionalResponse(ifNoneMatch, ETags.of(product), () -> buildSuccessfulResponse(request.getHeader(), "Stock item found", product));
         log.info("Response={}", response);
         return response;
     }
@@ -83,7 +137,7 @@ public class StockService extends Assistant {
             throw new BadRequestException("Invalid quantity");
         }
 
-        if (productRepo.findById(body.id()).isEmpty()) {
+        if (stockOps.getProduct(body.id()).isEmpty()) {
             throw new NotFoundException("No such product found");
         }
 
@@ -105,7 +159,7 @@ public class StockService extends Assistant {
             throw new BadRequestException("Invalid price");
         }
 
-        if (productRepo.findById(body.id()).isEmpty()) {
+        if (stockOps.getProduct(body.id()).isEmpty()) {
             throw new NotFoundException("No such product found");
         }
 
@@ -124,7 +178,8 @@ public class StockService extends Assistant {
 
         Form.StockToUpdate body = request.getBody();
 
-        if (productRepo.findById(body.id()).isEmpty()) {
+        Optional<Product> optionalPrevious = stockOps.getProduct(body.id());
+        if (optionalPrevious.isEmpty()) {
             throw new NotFoundException("No such product found");
         }
 
@@ -163,6 +218,7 @@ public class StockService extends Assistant {
         if (optionalProduct.isEmpty()) {
             throw new FailureException("The stock item information couldn't be updated");
         }
+        catalogChanges.replaced(optionalPrevious.get(), optionalProduct.get());
 
         GenericResponse<Product> response = buildSuccessfulResponse(request.getHeader(), "Stock item information successfully updated", optionalProduct.get());
         log.info("Response={}", response);
@@ -211,6 +267,7 @@ public class StockService extends Assistant {
             if (savedProductOptional.isEmpty()) {
                 batchSummary.getFailed().add(new BatchSummary.BatchItem<>(stockToAdd.name(), "We are unable to add this product to stock"));
             } else {
+                catalogChanges.added(savedProductOptional.get());
                 batchSummary.getSuccessful().add(new BatchSummary.BatchItem<>(stockToAdd.name(), "Product added to stock"));
             }
         });
@@ -36,19 +36,19 @@ public class UserService extends Assistant {
     private final PasswordEncoder passwordEncoder;
     private final LoginOps loginOps;
 
-    public final GenericResponse<Paged<Account>> filter(final Pageable pageable, final GenericRequest<Form.Search> request) {
+    public final GenericResponse<Paged<Account>> filter(final Pageable pageable, final GenericRequest<Form.UserSearch> request) {
         log.info("Request={}", request);
 
-        Form.Search body = request.getBody();
-        Optional.ofNullable(body.param())
+        Form.UserSearch body = request.getBody();
+        Optional.ofNullable(body.name())
                 .ifPresent(s -> {
                     if (!s.isBlank() && containsSpecialCharacter(s.replace(" ", ""))) {
-                        throw new BadRequestException("Invalid search param");
+                        throw new BadRequestException("Invalid name search param");
                     }
                 });
 
-        Optional<Paged<Account>> optionalPaged = Optional.ofNullable(body.param()).orElse("").isBlank() ? accountOps.getUsers(pageable) : accountOps.getUsers(body.param(), pageable);
-        if (optionalPaged.isEmpty() || optionalPaged.get().getTotalPages() == 0) {
+        Optional<Paged<Account>> optionalPaged = accountOps.getUsers(body.name(), body.email(), body.role(), body.cursor(), pageable.getPageSize());
+        if (optionalPaged.isEmpty()) {
             throw new NotFoundException("No user accounts found");
         }
 
@@ -100,13 +100,9 @@ public class UserService extends Assistant {
                     if (s.isBlank() || !correctEmailFormat(s)) {
                         throw new BadRequestException("Invalid email for the user.");
                     }
-                    if (s.equals(optionalAccount.get().getEmail())) {
+                    if (Account.normalizeEmail(s).equals(optionalAccount.get().getEmail())) {
                         throw new BadRequestException("The desired email your current email. Update/Remove the it to continue");
                     }
-                    accountOps.getUser(s)
-                            .ifPresent(account -> {
-                                throw new BadRequestException("Duplicate user found. Please provide a unique email.");
-                            });
                 });
 
         Optional<Account> updatedUser = accountOps.updateUser(body.id(), body.name(), body.email());
@@ -0,0 +1,132 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingCacheTest {
+
+    private static final int CALLERS = 32;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor();
+    private final ConcurrentMapCache region = new ConcurrentMapCache("products");
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        refresher.shutdownNow();
+    }
+
+    private List<Future<String>> missTogether(final CoalescingCache cache, final Callable<String> loader) {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return cache.get("page", loader);
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    private Callable<String> slowLoad(final long millis) {
+        return () -> {
+            Thread.sleep(millis);
+            return "v" + loads.incrementAndGet();
+        };
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        final CoalescingCache cache = new CoalescingCache(region, new SingleFlight(Duration.ofSeconds(5)), null, null, refresher);
+
+        for (Future<String> result : missTogether(cache, slowLoad(200))) {
+            assertEquals("v1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals("v1", cache.get("page", slowLoad(0)));
+    }
+
+    @Test
+    void failedLoadIsSharedAndNotCached() {
+        final CoalescingCache cache = new CoalescingCache(region, new SingleFlight(Duration.ofSeconds(5)), null, null, refresher);
+
+        for (Future<String> result : missTogether(cache, () -> {
+            loads.incrementAndGet();
+            Thread.sleep(200);
+            throw new IllegalStateException("database down");
+        })) {
+            assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(loads.get() < CALLERS);
+        assertNull(region.get("page"));
+    }
+
+    @Test
+    void waitersLoadByThemselvesAfterTheTimeout() throws Exception {
+        final CoalescingCache cache = new CoalescingCache(region, new SingleFlight(Duration.ofMillis(50)), null, null, refresher);
+
+        for (Future<String> result : missTogether(cache, slowLoad(500))) {
+            assertNotNull(result.get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(loads.get() > 1);
+    }
+
+    @Test
+    void entryIsRefreshedAheadWhileTheOldValueIsServed() throws Exception {
+        final CoalescingCache cache = new CoalescingCache(region, new SingleFlight(Duration.ofSeconds(5)), Duration.ofMillis(100), Duration.ofMinutes(1), refresher);
+        assertEquals("v1", cache.get("page", slowLoad(0)));
+        assertEquals("v1", cache.get("page", slowLoad(0)));
+
+        Thread.sleep(150);
+        assertEquals("v1", cache.get("page", slowLoad(0)), "the due entry is still served");
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!"v2".equals(cache.get("page", String.class)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("v2", cache.get("page", String.class));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void refreshDoesNotPutBackAnEvictedEntry() throws Exception {
+        final CoalescingCache cache = new CoalescingCache(region, new SingleFlight(Duration.ofSeconds(5)), Duration.ofMillis(50), Duration.ofMinutes(1), refresher);
+        cache.get("page", slowLoad(0));
+        Thread.sleep(100);
+
+        cache.get("page", slowLoad(300));
+        cache.evict("page");
+        refresher.shutdown();
+        assertTrue(refresher.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertNull(cache.get("page"));
+    }
+
+    @Test
+    void missDoesNotCacheWhatItReadBeforeAnEviction() {
+        final CoalescingCache cache = new CoalescingCache(region, new SingleFlight(Duration.ofSeconds(5)), null, null, refresher);
+
+        // the load reads the old value, then a write evicts the entry before the load caches what it read
+        assertEquals("old", cache.get("page", () -> {
+            cache.evict("page");
+            return "old";
+        }));
+
+        assertNull(cache.get("page"));
+        assertEquals("v1", cache.get("page", slowLoad(0)));
+        assertEquals("v1", cache.get("page", slowLoad(0)));
+    }
+
+}
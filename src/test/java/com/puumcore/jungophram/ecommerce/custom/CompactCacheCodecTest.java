@@ -0,0 +1,212 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import com.puumcore.jungophram.ecommerce.custom.CompactCacheCodec.Schema;
+import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
+import com.puumcore.jungophram.ecommerce.models.constants.Role;
+import com.puumcore.jungophram.ecommerce.models.objects.CatalogFacets;
+import com.puumcore.jungophram.ecommerce.models.objects.IdPage;
+import com.puumcore.jungophram.ecommerce.models.objects.OrderSummary;
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Account;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import com.puumcore.jungophram.ecommerce.repositories.entities.ShoppingCart;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCacheCodecTest {
+
+    private final CompactCacheCodec codec = new CompactCacheCodec(true, 1024);
+
+    private static Product product(final long id) {
+        Product product = new Product("Product " + id, "Description of product " + id, 10.5 * id, (int) id % 50, "Category " + id % 7);
+        product.setProduct_id(id);
+        return product;
+    }
+
+    private static Order order(final int lines) {
+        final List<ShoppingCart.Item> items = IntStream.range(0, lines)
+                .mapToObj(i -> new ShoppingCart.Item((long) i, "Product " + i, 1 + i % 3, 10.0 * (1 + i % 3)))
+                .toList();
+        final ShoppingCart cart = new ShoppingCart(UUID.randomUUID(), new ShoppingCart.Customer(42L, "user42@example.com"), new ArrayList<>(items));
+        return new Order(UUID.randomUUID(), cart, 120.0, OrderStatus.PENDING, LocalDateTime.of(2026, 10, 19, 23, 50, 12, 345_000_000), null, null);
+    }
+
+    private Object roundTrip(final Object value) {
+        return codec.deserialize(codec.serialize(value));
+    }
+
+    private static List<Schema<?>> replacing(final Schema<?> schema) {
+        final List<Schema<?>> schemas = new ArrayList<>(CacheSchemas.all());
+        schemas.removeIf(registered -> registered.typeId() == schema.typeId());
+        schemas.add(schema);
+        return schemas;
+    }
+
+    @Test
+    void entitiesRoundTrip() {
+        assertEquals(product(7), roundTrip(product(7)));
+
+        final Order order = order(3);
+        assertEquals(order, roundTrip(order));
+        assertEquals(order.getCart(), roundTrip(order.getCart()));
+
+        final OrderSummary summary = OrderSummary.of(order);
+        assertEquals(summary, roundTrip(summary));
+
+        final CatalogFacets facets = new CatalogFacets(
+                List.of(new CatalogFacets.FacetCount("Category 1", 12)),
+                List.of(new CatalogFacets.PriceBand(0.0, 100.0, 4), new CatalogFacets.PriceBand(100.0, null, 8))
+        );
+        assertEquals(facets, roundTrip(facets));
+        assertEquals(List.of(3L, 1L, 2L), roundTrip(List.of(3L, 1L, 2L)));
+    }
+
+    @Test
+    void accountsLeaveThePasswordOut() {
+        Account account = new Account("Jane Doe", "jane@example.com", "hash", Role.ADMIN);
+        account.setUser_id(5L);
+
+        final Account read = (Account) roundTrip(account);
+
+        assertEquals(5L, read.getUser_id());
+        assertEquals("Jane Doe", read.getName());
+        assertEquals("jane doe", read.getNameKey());
+        assertEquals("jane@example.com", read.getEmail());
+        assertEquals(Role.ADMIN, read.getRole());
+        assertNull(read.getPassword());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pagesRoundTrip() {
+        Paged<Product> paged = new Paged<>(4);
+        paged.setHasNext(true);
+        paged.getData().addAll(List.of(product(1), product(2)));
+        paged.setEtag(ETags.of(paged));
+
+        final Paged<Product> read = (Paged<Product>) roundTrip(paged);
+
+        assertEquals(4, read.getTotalPages());
+        assertTrue(read.isHasNext());
+        assertNull(read.getNext());
+        assertEquals(paged.getData(), read.getData());
+        assertEquals(paged.getEtag(), read.getEtag());
+
+        final IdPage idPage = (IdPage) roundTrip(new IdPage(new long[]{9, -1, 3}, null, false, "cursor"));
+        assertArrayEquals(new long[]{9, -1, 3}, idPage.ids());
+        assertNull(idPage.totalPages());
+        assertFalse(idPage.hasNext());
+        assertEquals("cursor", idPage.next());
+    }
+
+    @Test
+    void isSmallerThanJdkSerialization() {
+        final Product product = product(7);
+
+        assertTrue(codec.serialize(product).length * 3 < RedisSerializer.java().serialize(product).length);
+    }
+
+    @Test
+    void compressesLargeValues() {
+        final Order order = order(200);
+        final byte[] plain = new CompactCacheCodec(false, 1024).serialize(order);
+        final byte[] compressed = codec.serialize(order);
+
+        assertEquals(0x02, compressed[0]);
+        assertTrue(compressed.length < plain.length);
+        assertEquals(order, codec.deserialize(compressed));
+        // compressed entries stay readable with compression turned off
+        assertEquals(order, new CompactCacheCodec(false, 1024).deserialize(compressed));
+        assertEquals(0x01, codec.serialize(product(1))[0]);
+    }
+
+    @Test
+    void unregisteredTypesFallBackToJdkSerialization() {
+        final Map<Object, IdPage> group = new LinkedHashMap<>();
+        group.put(new SimpleKey("first", 20), new IdPage(new long[]{1, 2}, 1, false, null));
+
+        final byte[] bytes = codec.serialize(group);
+
+        assertEquals((byte) 0xAC, bytes[0]);
+        @SuppressWarnings("unchecked") final Map<Object, IdPage> read = (Map<Object, IdPage>) codec.deserialize(bytes);
+        assertArrayEquals(new long[]{1, 2}, read.get(new SimpleKey("first", 20)).ids());
+    }
+
+    @Test
+    void readsValuesWrittenByJdkSerialization() {
+        final Product product = product(11);
+
+        assertEquals(product, codec.deserialize(RedisSerializer.java().serialize(product)));
+    }
+
+    @Test
+    void skipsFieldsItDoesNotKnow() {
+        final Schema<Product> newer = new Schema<>(1, Product.class, (product, out) -> {
+            CacheSchemas.PRODUCT.writer().accept(product, out);
+            out.field(8, List.of(Map.of("warehouse", 3L), "tags"));
+            out.field(9, UUID.randomUUID());
+        }, CacheSchemas.PRODUCT.reader());
+        final byte[] bytes = new CompactCacheCodec(replacing(newer), false, 1024).serialize(List.of(product(3), product(4)));
+
+        assertEquals(List.of(product(3), product(4)), codec.deserialize(bytes));
+    }
+
+    @Test
+    void leavesFieldsItDoesNotFindUnset() {
+        final Schema<Product> older = new Schema<>(1, Product.class, (product, out) -> {
+            out.field(1, product.getProduct_id());
+            out.field(2, product.getName());
+            out.field(3, product.getDescription());
+            out.field(4, product.getPrice());
+            out.field(5, product.getStockQuantity());
+            out.field(6, product.getCategory());
+        }, CacheSchemas.PRODUCT.reader());
+        Product product = product(3);
+        product.setImageUrl("https://example.com/3.png");
+
+        final Product read = (Product) codec.deserialize(new CompactCacheCodec(replacing(older), false, 1024).serialize(product));
+
+        assertEquals("Product 3", read.getName());
+        assertNull(read.getImageUrl());
+    }
+
+    @Test
+    void widensNumbers() {
+        final Schema<Product> older = new Schema<>(1, Product.class, (product, out) -> {
+            out.field(1, product.getProduct_id().intValue());
+            out.field(2, product.getName());
+        }, CacheSchemas.PRODUCT.reader());
+
+        final Product read = (Product) codec.deserialize(new CompactCacheCodec(replacing(older), false, 1024).serialize(product(3)));
+
+        assertEquals(3L, read.getProduct_id());
+    }
+
+    @Test
+    void failsOnWhatItCanNotRead() {
+        final Schema<Product> unknownType = new Schema<>(99, Product.class, CacheSchemas.PRODUCT.writer(), CacheSchemas.PRODUCT.reader());
+        final List<Schema<?>> schemas = new ArrayList<>(CacheSchemas.all());
+        schemas.removeIf(schema -> schema.type() == Product.class);
+        schemas.add(unknownType);
+        assertThrows(SerializationException.class, () -> codec.deserialize(new CompactCacheCodec(schemas, false, 1024).serialize(product(1))));
+
+        final Schema<OrderSummary> unknownStatus = new Schema<>(7, OrderSummary.class, (summary, out) -> {
+            out.field(1, summary.id());
+            out.field(3, "REFUNDED");
+        }, CacheSchemas.ORDER_SUMMARY.reader());
+        final byte[] bytes = new CompactCacheCodec(replacing(unknownStatus), false, 1024).serialize(OrderSummary.of(order(1)));
+        assertThrows(SerializationException.class, () -> codec.deserialize(bytes));
+
+        assertThrows(SerializationException.class, () -> codec.deserialize(new byte[]{0x7F}));
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    private static Product product(final int stockQuantity) {
+        Product product = new Product("Paracetamol", "Pain relief", 120.0, stockQuantity, "analgesics");
+        product.setProduct_id(7L);
+        return product;
+    }
+
+    private static Paged<Product> page(final Product... products) {
+        Paged<Product> paged = new Paged<>(2);
+        paged.setHasNext(true);
+        paged.getData().addAll(List.of(products));
+        return paged;
+    }
+
+    @Test
+    void followsTheContent() {
+        assertEquals(ETags.of(product(5)), ETags.of(product(5)));
+        assertNotEquals(ETags.of(product(5)), ETags.of(product(4)));
+
+        assertEquals(ETags.of(page(product(5))), ETags.of(page(product(5))));
+        assertNotEquals(ETags.of(page(product(5))), ETags.of(page(product(4))));
+        final Paged<Product> last = page(product(5));
+        last.setHasNext(false);
+        assertNotEquals(ETags.of(page(product(5))), ETags.of(last));
+    }
+
+    @Test
+    void isWeak() {
+        assertTrue(ETags.of(product(5)).matches("W/\"[0-9a-f]{32}\""));
+    }
+
+    @Test
+    void matchesWhatTheClientHolds() {
+        final String etag = ETags.of(product(5));
+        final String opaque = etag.substring(2);
+
+        assertTrue(ETags.matches(etag, etag));
+        assertTrue(ETags.matches(opaque, etag));
+        assertTrue(ETags.matches("\"other\", " + etag, etag));
+        assertTrue(ETags.matches("*", etag));
+        assertFalse(ETags.matches("\"other\"", etag));
+        assertFalse(ETags.matches(null, etag));
+        assertFalse(ETags.matches(" ", etag));
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityCacheTest {
+
+    record Item(long id, int version) {
+    }
+
+    private final ConcurrentMapCache region = new ConcurrentMapCache("item");
+    private final EntityCache<Long, Item> cache = new EntityCache<>(region, Item.class, Item::id);
+
+    @Test
+    void aLoadDoesNotOverwriteAWriteThatLandedWhileItRan() {
+        // the load reads version 1, then a write stores version 2 before the load caches what it read
+        final Optional<Item> read = cache.get(1L, id -> {
+            cache.put(new Item(id, 2));
+            return Optional.of(new Item(id, 1));
+        });
+
+        assertEquals(2, read.orElseThrow().version());
+        assertEquals(2, region.get(1L, Item.class).version());
+        assertEquals(2, cache.get(1L, id -> Optional.of(new Item(id, 1))).orElseThrow().version());
+    }
+
+    @Test
+    void aWriteAfterALoadReplacesIt() {
+        cache.get(1L, id -> Optional.of(new Item(id, 1)));
+
+        cache.put(new Item(1L, 2));
+
+        assertEquals(2, region.get(1L, Item.class).version());
+    }
+
+    @Test
+    void aBatchLoadDoesNotOverwriteAWriteThatLandedWhileItRan() {
+        cache.put(new Item(3L, 1));
+
+        final List<Item> read = cache.getAll(List.of(1L, 2L, 3L), misses -> {
+            cache.put(new Item(2L, 2));
+            return misses.stream().map(id -> new Item(id, 1)).toList();
+        });
+
+        assertEquals(List.of(new Item(1L, 1), new Item(2L, 2), new Item(3L, 1)), read);
+        assertEquals(1, region.get(1L, Item.class).version());
+        assertEquals(2, region.get(2L, Item.class).version());
+    }
+
+    @Test
+    void absentEntitiesAreNotCached() {
+        assertTrue(cache.get(1L, id -> Optional.empty()).isEmpty());
+        assertNull(region.get(1L));
+    }
+
+}
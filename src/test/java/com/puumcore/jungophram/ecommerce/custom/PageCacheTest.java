@@ -0,0 +1,151 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import com.puumcore.jungophram.ecommerce.models.objects.IdPage;
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCacheTest {
+
+    record Row(UUID id, String status) {
+    }
+
+    private final ConcurrentMapCache pages = new ConcurrentMapCache("pages");
+    private final ConcurrentMapCache rows = new ConcurrentMapCache("rows");
+    private final EntityCache<UUID, Row> entities = new EntityCache<>(rows, Row.class, Row::id);
+    private final PageCache<UUID, Row> pageCache = PageCache.byUuid(pages, entities);
+
+    private final Map<UUID, Row> stored = new LinkedHashMap<>();
+    private final AtomicInteger pageLoads = new AtomicInteger();
+    private final AtomicInteger rowLoads = new AtomicInteger();
+
+    private final Function<Collection<UUID>, List<Row>> rowLoader = ids -> {
+        rowLoads.incrementAndGet();
+        return ids.stream().map(stored::get).filter(Objects::nonNull).toList();
+    };
+
+    private Optional<Paged<Row>> load() {
+        pageLoads.incrementAndGet();
+        Paged<Row> paged = new Paged<>(3);
+        paged.setHasNext(true);
+        paged.getData().addAll(stored.values());
+        return Optional.of(paged);
+    }
+
+    private Paged<Row> get() {
+        return pageCache.get("group", "first", rowLoader, this::load).orElseThrow();
+    }
+
+    private void store(final String status) {
+        final Row row = new Row(UUID.randomUUID(), status);
+        stored.put(row.id(), row);
+    }
+
+    @Test
+    void pagesAreCachedAsIds() {
+        store("PENDING");
+        store("COMPLETED");
+
+        get();
+        final Paged<Row> cached = get();
+
+        assertEquals(1, pageLoads.get());
+        assertEquals(0, rowLoads.get());
+        assertEquals(List.copyOf(stored.values()), cached.getData());
+        assertEquals(3, cached.getTotalPages());
+        assertTrue(cached.isHasNext());
+        final long generation = Objects.requireNonNull(pages.get(new CacheGenerations.GroupKey("group"), Long.class));
+        assertEquals(4, Objects.requireNonNull(pages.get(new PageCache.PageKey("group", generation, "first"), IdPage.class)).ids().length);
+    }
+
+    @Test
+    void changedRowIsSeenWithoutRunningThePageAgain() {
+        store("PENDING");
+        get();
+
+        final Row changed = new Row(stored.keySet().iterator().next(), "COMPLETED");
+        entities.put(changed);
+
+        assertEquals("COMPLETED", get().getData().get(0).status());
+        assertEquals(1, pageLoads.get());
+    }
+
+    @Test
+    void evictedRowsAreLoadedInOneBatch() {
+        store("PENDING");
+        store("CANCELED");
+        get();
+        rows.clear();
+
+        assertEquals(2, get().getData().size());
+        assertEquals(1, rowLoads.get());
+        assertEquals(1, pageLoads.get());
+    }
+
+    @Test
+    void evictingAGroupLeavesTheOthers() {
+        store("PENDING");
+        get();
+        pageCache.get("other", "first", rowLoader, this::load);
+
+        pageCache.evict("group");
+
+        assertNull(pages.get(new CacheGenerations.GroupKey("group")));
+        pageCache.get("other", "first", rowLoader, this::load);
+        assertEquals(2, pageLoads.get());
+        get();
+        assertEquals(3, pageLoads.get());
+    }
+
+    @Test
+    void aPageLoadedAcrossAnEvictionIsNotServed() {
+        store("PENDING");
+
+        // the page reads the old rows, then a write lands and evicts the group before the page is cached
+        pageCache.get("group", "first", rowLoader, () -> {
+            final Optional<Paged<Row>> stale = load();
+            store("COMPLETED");
+            pageCache.evict("group");
+            return stale;
+        });
+
+        assertEquals(2, get().getData().size());
+        assertEquals(2, pageLoads.get());
+    }
+
+    @Test
+    void pagesOfAGroupAreEntriesOfTheirOwn() {
+        store("PENDING");
+        get();
+        pageCache.get("group", "second", rowLoader, this::load);
+
+        final long generation = Objects.requireNonNull(pages.get(new CacheGenerations.GroupKey("group"), Long.class));
+        assertNotNull(pages.get(new PageCache.PageKey("group", generation, "first")));
+        assertNotNull(pages.get(new PageCache.PageKey("group", generation, "second")));
+        assertEquals(3, pages.getNativeCache().size());
+
+        get();
+        pageCache.get("group", "second", rowLoader, this::load);
+        assertEquals(2, pageLoads.get());
+    }
+
+    @Test
+    void pageWithAGoneRowIsRunAgain() {
+        store("PENDING");
+        store("CANCELED");
+        get();
+        final UUID gone = stored.keySet().iterator().next();
+        stored.remove(gone);
+        entities.evict(gone);
+
+        assertEquals(1, get().getData().size());
+        assertEquals(2, pageLoads.get());
+    }
+
+}
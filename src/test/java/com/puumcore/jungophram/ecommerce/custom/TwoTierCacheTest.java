@@ -0,0 +1,88 @@
+package com.puumcore.jungophram.ecommerce.custom;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoTierCacheTest {
+
+    /**
+     * Both print as "SimpleKey [a, b]"
+     */
+    private static final SimpleKey ONE_PARAM = new SimpleKey("a, b");
+    private static final SimpleKey TWO_PARAMS = new SimpleKey("a", "b");
+
+    private final ConcurrentMapCache shared = new ConcurrentMapCache("products");
+    private final List<String> announced = new ArrayList<>();
+
+    private TwoTierCache cache(final Cache local) {
+        return new TwoTierCache("products", local, shared, (region, key) -> announced.add(key));
+    }
+
+    @Test
+    void keysThatPrintTheSameKeepTheirOwnLocalEntry() {
+        for (Cache local : List.of(new ConcurrentMapCache("products"), new CaffeineCache("products", Caffeine.newBuilder().build()))) {
+            final TwoTierCache cache = cache(local);
+            cache.put(ONE_PARAM, "one");
+            cache.put(TWO_PARAMS, "two");
+
+            assertEquals("one", cache.get(ONE_PARAM, String.class));
+            assertEquals("two", cache.get(TWO_PARAMS, String.class));
+            assertEquals("one", local.get(ONE_PARAM, String.class));
+            assertEquals("two", local.get(TWO_PARAMS, String.class));
+
+            cache.evict(ONE_PARAM);
+            assertNull(cache.get(ONE_PARAM));
+            assertEquals("two", cache.get(TWO_PARAMS, String.class));
+            shared.clear();
+        }
+        assertEquals("SimpleKey [a, b]", announced.get(0));
+    }
+
+    @Test
+    void aFillLosesToWhatAnotherReplicaWrote() {
+        final ConcurrentMapCache local = new ConcurrentMapCache("products");
+        final TwoTierCache cache = cache(local);
+        shared.put("page", "written");
+
+        final Cache.ValueWrapper existing = cache.putIfAbsent("page", "loaded");
+
+        assertEquals("written", existing == null ? null : existing.get());
+        assertEquals("written", local.get("page", String.class));
+        assertNull(cache.putIfAbsent("other", "loaded"));
+        assertEquals("loaded", shared.get("other", String.class));
+        assertEquals("loaded", local.get("other", String.class));
+    }
+
+    @Test
+    void anAnnouncementDropsEveryLocalKeyThatReadsTheSame() {
+        for (Cache local : List.of(new ConcurrentMapCache("products"), new CaffeineCache("products", Caffeine.newBuilder().build()))) {
+            final TwoTierCache cache = cache(local);
+            cache.put(ONE_PARAM, "one");
+            cache.put(TWO_PARAMS, "two");
+            cache.put("other", "three");
+
+            cache.invalidateLocal(TwoTierCacheManager.keyOf(TWO_PARAMS));
+
+            assertNull(local.get(ONE_PARAM));
+            assertNull(local.get(TWO_PARAMS));
+            assertEquals("three", local.get("other", String.class));
+            // the shared tier still holds both, and refills the local one
+            assertEquals("one", cache.get(ONE_PARAM, String.class));
+            assertEquals("one", local.get(ONE_PARAM, String.class));
+
+            cache.invalidateLocal(null);
+            assertNull(local.get("other"));
+            shared.clear();
+        }
+    }
+
+}
@@ -0,0 +1,355 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.puumcore.jungophram.ecommerce.configs.CatalogSearchConfig;
+import com.puumcore.jungophram.ecommerce.configs.CustomSecurityConfig;
+import com.puumcore.jungophram.ecommerce.configs.OrderCheckoutConfig;
+import com.puumcore.jungophram.ecommerce.custom.CacheGenerations;
+import com.puumcore.jungophram.ecommerce.custom.SingleFlight;
+import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import com.puumcore.jungophram.ecommerce.repositories.entities.ShoppingCart;
+import com.puumcore.jungophram.ecommerce.services.SequenceGeneratorService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Reads catalog pages and product lookups through the cache, changes the products every way the repository can and
+ * checks the next read sees the change. The database is stood in for by a map behind the mocked template.
+ */
+@SpringJUnitConfig(ProductCacheCoherenceTest.Config.class)
+class ProductCacheCoherenceTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "product_id"));
+
+    @Configuration
+    @EnableCaching
+    @Import(Brain.class)
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+
+        @Bean
+        SingleFlight singleFlight() {
+            return new SingleFlight(Duration.ofSeconds(5));
+        }
+
+    }
+
+    @Autowired
+    private StockOps stockOps;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private MongoTemplate mongoTemplate;
+    @MockBean
+    private ProductRepo productRepo;
+    @MockBean
+    private SequenceGeneratorService sequenceGeneratorService;
+    @MockBean
+    private UserRepo userRepo;
+    @MockBean
+    private LoginSessionRepo loginSessionRepo;
+    @MockBean
+    private ShoppingCartRepo shoppingCartRepo;
+    @MockBean
+    private OrderRepo orderRepo;
+    @MockBean
+    private FulfilmentTaskRepo fulfilmentTaskRepo;
+    @MockBean
+    private CustomSecurityConfig customSecurityConfig;
+    @MockBean
+    private MongoTransactionManager mongoTransactionManager;
+    @MockBean
+    private OrderCheckoutConfig orderCheckoutConfig;
+    @MockBean
+    private CatalogSearchConfig catalogSearchConfig;
+    @MockBean
+    private IndexBootstrapper indexBootstrapper;
+
+    private final Map<Long, Product> stored = new TreeMap<>(Comparator.reverseOrder());
+    private final AtomicLong sequence = new AtomicLong(100);
+    private Long facetsGeneration;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        stored.clear();
+        store(product(1L, "Panadol", "Pain relief", 250.0, 10, "Analgesics"));
+        store(product(2L, "Amoxil", "Antibiotic", 480.0, 5, "Antibiotics"));
+
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenAnswer(invocation -> {
+            final Object ids = invocation.getArgument(0, Query.class).getQueryObject().get("_id");
+            return stored.values().stream()
+                    .filter(product -> !(ids instanceof Document in) || ((Collection<?>) in.get("$in")).contains(product.getProduct_id()))
+                    .map(ProductCacheCoherenceTest::copy)
+                    .toList();
+        });
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenAnswer(invocation -> List.of(completedOrder()));
+        when(mongoTemplate.estimatedCount(Product.class)).thenAnswer(invocation -> (long) stored.size());
+        when(mongoTemplate.findOne(any(Query.class), eq(Product.class))).thenAnswer(invocation -> {
+            final Document filter = invocation.getArgument(0, Query.class).getQueryObject();
+            return stored.values().stream()
+                    .filter(product -> product.getName().equals(filter.get("name")))
+                    .findFirst()
+                    .map(ProductCacheCoherenceTest::copy)
+                    .orElse(null);
+        });
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenAnswer(invocation -> modify(invocation.getArgument(0), invocation.getArgument(1), false));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class)))
+                .thenAnswer(invocation -> modify(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2, FindAndModifyOptions.class).isReturnNew()));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Product.class)))
+                .thenAnswer(invocation -> stored.remove(invocation.getArgument(0, Query.class).getQueryObject().get("_id")));
+        when(productRepo.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.getArgument(0, Long.class))).map(ProductCacheCoherenceTest::copy));
+        when(productRepo.save(any(Product.class))).thenAnswer(invocation -> copy(store(invocation.getArgument(0, Product.class))));
+        when(sequenceGeneratorService.generateSequence(anyString())).thenAnswer(invocation -> sequence.incrementAndGet());
+
+        final MongoCollection<Document> collection = mock(MongoCollection.class);
+        when(mongoTemplate.getCollection(Product.collection)).thenReturn(collection);
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenAnswer(invocation -> {
+            stored.get(1L).setStockQuantity(stored.get(1L).getStockQuantity() - 3);
+            return null;
+        });
+    }
+
+    private Product modify(final Query query, final Update update, final boolean returnNew) {
+        final Product product = stored.get((Long) query.getQueryObject().get("_id"));
+        if (product == null) {
+            return null;
+        }
+        final Product previous = copy(product);
+        update.getUpdateObject().get("$set", Document.class).forEach((field, value) -> {
+            switch (field) {
+                case "name" -> product.setName((String) value);
+                case "description" -> product.setDescription((String) value);
+                case "category" -> product.setCategory((String) value);
+                case "imageUrl" -> product.setImageUrl((String) value);
+                case "price" -> product.setPrice((Double) value);
+                case "stockQuantity" -> product.setStockQuantity((Integer) value);
+                default -> throw new IllegalArgumentException(field);
+            }
+        });
+        return returnNew ? copy(product) : previous;
+    }
+
+    private Product store(final Product product) {
+        stored.put(product.getProduct_id(), copy(product));
+        return product;
+    }
+
+    private static Product product(final Long id, final String name, final String description, final double price, final int qty, final String category) {
+        Product product = new Product(name, description, price, qty, category);
+        product.setProduct_id(id);
+        return product;
+    }
+
+    private static Product copy(final Product product) {
+        Product copy = product(product.getProduct_id(), product.getName(), product.getDescription(), product.getPrice(), product.getStockQuantity(), product.getCategory());
+        copy.setImageUrl(product.getImageUrl());
+        return copy;
+    }
+
+    /**
+     * A completed order of three of the first product, waiting for its stock to be deducted
+     */
+    private static Order completedOrder() {
+        final ShoppingCart cart = new ShoppingCart(UUID.randomUUID(), new ShoppingCart.Customer(42L, "user42@example.com"),
+                new ArrayList<>(List.of(new ShoppingCart.Item(1L, "Panadol", 3, 250.0))));
+        return new Order(UUID.randomUUID(), cart, 750.0, OrderStatus.COMPLETED, LocalDateTime.now(), LocalDateTime.now(), false);
+    }
+
+    private Product firstOnPage(final Long id) {
+        final Paged<Product> paged = stockOps.getProducts(PAGE).orElseThrow();
+        return paged.getData().stream().filter(product -> product.getProduct_id().equals(id)).findFirst().orElse(null);
+    }
+
+    /**
+     * The facets are cached under the generation of their group, which a change that moves them evicts
+     */
+    private void cacheFacets() {
+        facetsGeneration = CacheGenerations.current(cacheManager.getCache("facets"), "facets");
+    }
+
+    private boolean facetsCached() {
+        return Objects.equals(facetsGeneration, CacheGenerations.current(cacheManager.getCache("facets"), "facets"));
+    }
+
+    private void verifyPageReads(final int times) {
+        verify(mongoTemplate, times(times)).find(argThat((Query query) -> query.getLimit() == PAGE.getPageSize() + 1), eq(Product.class));
+    }
+
+    @Test
+    void catalogPagesAreReadThrough() {
+        stockOps.getProducts(PAGE);
+        stockOps.getProducts(PAGE);
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    void productsByIdAreReadThroughInOneBatch() {
+        assertEquals(250.0, stockOps.getProduct(1L).orElseThrow().getPrice());
+        verify(productRepo, times(1)).findById(1L);
+
+        final List<Product> products = stockOps.getProducts(List.of(2L, 1L, 2L, 9L)).orElseThrow();
+
+        assertEquals(List.of(2L, 1L), products.stream().map(Product::getProduct_id).toList());
+        verify(mongoTemplate, times(1)).find(argThat((Query query) -> query.getQueryObject().get("_id", Document.class).get("$in", Collection.class).size() == 2), eq(Product.class));
+
+        stockOps.getProducts(List.of(1L, 2L));
+        stockOps.getProduct(2L);
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Product.class));
+        verify(productRepo, times(1)).findById(anyLong());
+    }
+
+    @Test
+    void productsByIdAreWrittenThrough() {
+        stockOps.getProduct(1L);
+
+        stockOps.updateProduct(1L, 4);
+        assertEquals(4, stockOps.getProduct(1L).orElseThrow().getStockQuantity());
+
+        stockOps.updateProduct(1L, 199.0);
+        assertEquals(199.0, stockOps.getProduct(1L).orElseThrow().getPrice());
+
+        stockOps.updateProduct(1L, null, "Paracetamol", null, null);
+        assertEquals("Paracetamol", stockOps.getProduct(1L).orElseThrow().getDescription());
+        assertEquals(199.0, stockOps.getProduct(1L).orElseThrow().getPrice());
+
+        stockOps.deductStock(List.of(completedOrder()));
+        assertEquals(1, stockOps.getProduct(1L).orElseThrow().getStockQuantity());
+
+        final Product saved = stockOps.saveProduct("Zyrtec", "Antihistamine", 320.0, 8, "Allergy", null).orElseThrow();
+        assertEquals("Zyrtec", stockOps.getProduct(saved.getProduct_id()).orElseThrow().getName());
+
+        verify(productRepo, times(1)).findById(anyLong());
+
+        assertTrue(stockOps.deleteProduct(1L));
+        assertTrue(stockOps.getProduct(1L).isEmpty());
+    }
+
+    @Test
+    void quantityUpdateIsSeen() {
+        assertEquals(10, firstOnPage(1L).getStockQuantity());
+        cacheFacets();
+
+        stockOps.updateProduct(1L, 7);
+
+        assertEquals(7, firstOnPage(1L).getStockQuantity());
+        assertTrue(facetsCached(), "a quantity change leaves the facets alone");
+        verifyPageReads(1);
+    }
+
+    @Test
+    void runningOutMovesTheInStockFacets() {
+        assertEquals(7, stockOps.updateProduct(1L, 7).orElseThrow().getStockQuantity());
+        cacheFacets();
+
+        assertEquals(0, stockOps.updateProduct(1L, 0).orElseThrow().getStockQuantity());
+
+        assertEquals(0, firstOnPage(1L).getStockQuantity());
+        assertFalse(facetsCached());
+
+        cacheFacets();
+        stockOps.updateProduct(1L, 4);
+        assertFalse(facetsCached(), "coming back in stock moves them too");
+    }
+
+    @Test
+    void priceUpdateIsSeen() {
+        assertEquals(250.0, firstOnPage(1L).getPrice());
+        cacheFacets();
+
+        stockOps.updateProduct(1L, 300.0);
+
+        assertEquals(300.0, firstOnPage(1L).getPrice());
+        assertFalse(facetsCached());
+        verifyPageReads(2);
+    }
+
+    @Test
+    void infoUpdateIsSeen() {
+        assertTrue(stockOps.getProduct("Panadol", "Pain relief", "Analgesics").isPresent());
+        assertEquals("Panadol", firstOnPage(1L).getName());
+        cacheFacets();
+
+        stockOps.updateProduct(1L, "Panadol Extra", null, null, null);
+
+        assertEquals("Panadol Extra", firstOnPage(1L).getName());
+        assertTrue(stockOps.getProduct("Panadol", "Pain relief", "Analgesics").isEmpty());
+        assertTrue(stockOps.getProduct("Panadol Extra", "Pain relief", "Analgesics").isPresent());
+        assertFalse(facetsCached());
+    }
+
+    @Test
+    void newProductIsSeen() {
+        assertTrue(stockOps.getProduct("Zyrtec", "Antihistamine", "Allergy").isEmpty());
+        assertEquals(2, stockOps.getProducts(PAGE).orElseThrow().getData().size());
+
+        stockOps.saveProduct("Zyrtec", "Antihistamine", 320.0, 8, "Allergy", null);
+
+        assertTrue(stockOps.getProduct("Zyrtec", "Antihistamine", "Allergy").isPresent());
+        assertEquals(3, stockOps.getProducts(PAGE).orElseThrow().getData().size());
+    }
+
+    @Test
+    void deletedProductIsGone() {
+        assertTrue(stockOps.getProduct("Amoxil", "Antibiotic", "Antibiotics").isPresent());
+        assertNotNull(firstOnPage(2L));
+        cacheFacets();
+
+        assertTrue(stockOps.deleteProduct(2L));
+
+        assertNull(firstOnPage(2L));
+        assertTrue(stockOps.getProduct("Amoxil", "Antibiotic", "Antibiotics").isEmpty());
+        assertFalse(facetsCached());
+    }
+
+    @Test
+    void stockDeductionIsSeen() {
+        assertEquals(10, firstOnPage(1L).getStockQuantity());
+
+        final Order order = completedOrder();
+        assertEquals(Set.of(order.getId()), stockOps.deductStock(List.of(order)));
+
+        assertEquals(7, firstOnPage(1L).getStockQuantity());
+        verifyPageReads(1);
+    }
+
+}
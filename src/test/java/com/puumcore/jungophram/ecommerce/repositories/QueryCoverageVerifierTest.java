@@ -0,0 +1,81 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks explain output shaped as the different server versions and topologies nest it, without a database
+ */
+class QueryCoverageVerifierTest {
+
+    private static Document explained(final String json) {
+        return Document.parse(json);
+    }
+
+    @Test
+    void findsACollectionScanWinningPlan() {
+        assertTrue(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"queryPlanner": {"winningPlan": {"stage": "LIMIT", "inputStage": {"stage": "COLLSCAN", "direction": "forward"}},
+                 "rejectedPlans": []}}
+                """)));
+    }
+
+    @Test
+    void passesAnIndexScanWinningPlan() {
+        assertFalse(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"queryPlanner": {"winningPlan": {"stage": "FETCH", "inputStage": {"stage": "IXSCAN", "indexName": "email"}},
+                 "rejectedPlans": []}}
+                """)));
+    }
+
+    @Test
+    void ignoresCollectionScansThatWereRejected() {
+        assertFalse(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"queryPlanner": {"winningPlan": {"stage": "FETCH", "inputStage": {"stage": "IXSCAN", "indexName": "status_date"}},
+                 "rejectedPlans": [{"stage": "COLLSCAN"}, {"stage": "FETCH", "inputStage": {"stage": "COLLSCAN"}}]}}
+                """)));
+    }
+
+    @Test
+    void walksEveryBranchOfAnOr() {
+        assertFalse(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"queryPlanner": {"winningPlan": {"stage": "SUBPLAN", "inputStage": {"stage": "FETCH", "inputStage": {"stage": "OR", "inputStages": [
+                    {"stage": "IXSCAN", "indexName": "status_queued"}, {"stage": "IXSCAN", "indexName": "status_claimed"}]}}}}}
+                """)));
+        assertTrue(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"queryPlanner": {"winningPlan": {"stage": "SUBPLAN", "inputStage": {"stage": "OR", "inputStages": [
+                    {"stage": "IXSCAN", "indexName": "status_queued"}, {"stage": "COLLSCAN"}]}}}}
+                """)));
+    }
+
+    @Test
+    void walksEveryShardOfAShardingMerge() {
+        assertFalse(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"queryPlanner": {"winningPlan": {"stage": "SHARD_MERGE", "shards": [
+                    {"shardName": "one", "winningPlan": {"stage": "FETCH", "inputStage": {"stage": "IXSCAN"}}, "rejectedPlans": [{"stage": "COLLSCAN"}]},
+                    {"shardName": "two", "winningPlan": {"stage": "FETCH", "inputStage": {"stage": "IXSCAN"}}}]}}}
+                """)));
+        assertTrue(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"queryPlanner": {"winningPlan": {"stage": "SHARDING_MERGE", "shards": [
+                    {"shardName": "one", "winningPlan": {"stage": "FETCH", "inputStage": {"stage": "IXSCAN"}}},
+                    {"shardName": "two", "winningPlan": {"stage": "COLLSCAN"}}]}}}
+                """)));
+    }
+
+    @Test
+    void findsScansInTheSlotBasedAndAggregationFormats() {
+        assertTrue(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"queryPlanner": {"winningPlan": {"queryPlan": {"stage": "COLLSCAN"}, "slotBasedPlan": {"stages": "scan"}}}}
+                """)));
+        assertTrue(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"stages": [{"$cursor": {"queryPlanner": {"winningPlan": {"stage": "PROJECTION_SIMPLE", "inputStage": {"stage": "COLLSCAN"}}}}},
+                    {"$group": {"_id": "$cart.items._id"}}]}
+                """)));
+        assertFalse(QueryCoverageVerifier.isCollectionScan(explained("""
+                {"stages": [{"$cursor": {"queryPlanner": {"winningPlan": {"stage": "FETCH", "inputStage": {"stage": "IXSCAN"}}}}}]}
+                """)));
+    }
+
+}
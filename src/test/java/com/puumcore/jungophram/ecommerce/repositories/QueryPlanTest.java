@@ -0,0 +1,288 @@
+package com.puumcore.jungophram.ecommerce.repositories;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.puumcore.jungophram.ecommerce.configs.MongoIndexConfig;
+import com.puumcore.jungophram.ecommerce.models.constants.*;
+import com.puumcore.jungophram.ecommerce.models.objects.CatalogFilter;
+import com.puumcore.jungophram.ecommerce.repositories.entities.*;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Explains every query shape of {@link Brain} against a seeded database and fails when one stops using its index.
+ * Needs Docker and is skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    private static final int ACCOUNTS = 1_000;
+    private static final int PRODUCTS = 2_000;
+    private static final int ORDERS = 10_000;
+    private static final int TASKS = 2_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+    private static QueryCoverageVerifier queryCoverageVerifier;
+    private static final List<UUID> orderIds = new ArrayList<>();
+
+    @BeforeAll
+    static void seed() {
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(MONGO.getReplicaSetUrl()))
+                .uuidRepresentation(UuidRepresentation.JAVA_LEGACY)
+                .build());
+        final MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        final MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        final MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        mongoTemplate = new MongoTemplate(new SimpleMongoClientDatabaseFactory(mongoClient, "plans"), converter);
+        queryCoverageVerifier = new QueryCoverageVerifier(mongoTemplate);
+
+        final IndexBootstrapper indexBootstrapper = new IndexBootstrapper(mongoTemplate, mappingContext, new MongoIndexConfig(), queryCoverageVerifier);
+        IndexBootstrapper.ENTITIES.forEach(entity -> indexBootstrapper.ensureIndexes(entity, mongoTemplate.getCollectionName(entity)));
+
+        mongoTemplate.insertAll(IntStream.range(0, ACCOUNTS).mapToObj(i -> {
+            Account account = new Account("User " + i, "user" + i + "@example.com", "secret", i % 10 == 0 ? Role.ADMIN : Role.USER);
+            account.setUser_id((long) i);
+            return account;
+        }).toList());
+
+        mongoTemplate.insertAll(IntStream.range(0, PRODUCTS).mapToObj(i -> {
+            Product product = new Product("Product " + i, "Description sku" + i, 10.0 + i, 100, "Category " + (i % 20));
+            product.setProduct_id((long) i);
+            return product;
+        }).toList());
+
+        mongoTemplate.insertAll(IntStream.range(0, ACCOUNTS).mapToObj(i -> {
+            ShoppingCart shoppingCart = new ShoppingCart();
+            shoppingCart.setId(UUID.randomUUID());
+            shoppingCart.setCustomer(new ShoppingCart.Customer((long) i, "user" + i + "@example.com"));
+            shoppingCart.getItems().addAll(items(i));
+            return shoppingCart;
+        }).toList());
+
+        final OrderStatus[] orderStatuses = OrderStatus.values();
+        mongoTemplate.insertAll(IntStream.range(0, ORDERS).mapToObj(i -> {
+            ShoppingCart shoppingCart = new ShoppingCart();
+            shoppingCart.setId(UUID.randomUUID());
+            shoppingCart.setCustomer(new ShoppingCart.Customer((long) (i % ACCOUNTS), "user" + (i % ACCOUNTS) + "@example.com"));
+            shoppingCart.getItems().addAll(items(i));
+            final OrderStatus orderStatus = orderStatuses[i % orderStatuses.length];
+            Order order = new Order(UUID.randomUUID(), shoppingCart, 30.0, orderStatus, NOW.minusHours(i), orderStatus == OrderStatus.PENDING ? null : NOW.minusHours(i / 2), orderStatus == OrderStatus.COMPLETED ? true : null);
+            orderIds.add(order.getId());
+            return order;
+        }).toList());
+
+        mongoTemplate.insertAll(IntStream.range(0, ACCOUNTS * 2).mapToObj(i -> {
+            LoginSession loginSession = new LoginSession();
+            loginSession.setId(UUID.randomUUID());
+            loginSession.setChannel(Channel.values()[0]);
+            loginSession.setUser(new LoginSession.User((long) (i % ACCOUNTS), "user" + (i % ACCOUNTS) + "@example.com"));
+            loginSession.setLogin_at(NOW.minusHours(i));
+            loginSession.setLogout_at(i < ACCOUNTS ? null : NOW.minusHours(i).plusMinutes(30));
+            return loginSession;
+        }).toList());
+
+        // a mostly drained queue, as it is between bursts of completions
+        mongoTemplate.insertAll(IntStream.range(0, TASKS).mapToObj(i -> {
+            FulfilmentTask fulfilmentTask = new FulfilmentTask();
+            fulfilmentTask.setId(UUID.randomUUID());
+            fulfilmentTask.setOrderId(orderIds.get(i));
+            fulfilmentTask.setStatus(switch (i % 20) {
+                case 0 -> FulfilmentStatus.QUEUED;
+                case 1 -> FulfilmentStatus.PROCESSING;
+                case 2 -> FulfilmentStatus.FAILED;
+                default -> FulfilmentStatus.DONE;
+            });
+            fulfilmentTask.setAttempts(1);
+            fulfilmentTask.setQueuedAt(NOW.minusMinutes(i));
+            if (i % 20 == 1) {
+                fulfilmentTask.setClaimToken(UUID.randomUUID());
+                fulfilmentTask.setClaimedAt(NOW.minusMinutes(i % 40 == 1 ? 1 : 30));
+            }
+            return fulfilmentTask;
+        }).toList());
+    }
+
+    @AfterAll
+    static void close() {
+        if (mongoClient != null) {
+            mongoClient.close();
+        }
+    }
+
+    private static List<ShoppingCart.Item> items(final int seed) {
+        return IntStream.range(0, 3)
+                .mapToObj(k -> {
+                    final long id = (seed * 7L + k) % PRODUCTS;
+                    return new ShoppingCart.Item(id, "Product " + id, 1, 10.0);
+                })
+                .toList();
+    }
+
+    private static String nameCursor(final long userId, final String nameKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("n:" + userId + ":" + nameKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param index    an index the winning plan has to use
+     * @param maxRatio the most documents the plan may examine per document it returns
+     */
+    record Shape(String name, Supplier<Document> explain, String index, double maxRatio) {
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static Stream<Shape> shapes() {
+        final ExplainVerbosity stats = ExplainVerbosity.EXECUTION_STATS;
+        final PageRequest page = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "orderDate"));
+        final Criteria customer = Brain.getCustomerOrdersCriteria(42L);
+        return Stream.of(
+                new Shape("account by email", () -> queryCoverageVerifier.explain(Brain.getUserByEmailQuery("User42@example.com"), Account.class, stats), "email", 1),
+                new Shape("users by name", () -> queryCoverageVerifier.explain(Brain.getUserSearchQuery("user 1", null, null, null, 20), Account.class, stats), "name_key", 1.5),
+                new Shape("users by name after a cursor", () -> queryCoverageVerifier.explain(Brain.getUserSearchQuery("user 1", null, null, nameCursor(15L, "user 15"), 20), Account.class, stats), "name_key", 1.5),
+                new Shape("users by role and name", () -> queryCoverageVerifier.explain(Brain.getUserSearchQuery("user 1", null, Role.ADMIN, null, 20), Account.class, stats), "role_name_key", 1.5),
+                new Shape("users by role and email", () -> queryCoverageVerifier.explain(Brain.getUserSearchQuery(null, "user1", Role.USER, null, 20), Account.class, stats), "role_email", 1.5),
+                new Shape("users by email", () -> queryCoverageVerifier.explain(Brain.getUserSearchQuery(null, "user1", null, null, 20), Account.class, stats), "email", 1.5),
+                new Shape("active login", () -> queryCoverageVerifier.explain(Brain.getActiveLoginQuery(42L), LoginSession.class, stats), "user_logout", 1),
+                new Shape("product by identity", () -> queryCoverageVerifier.explain(Brain.getProductQuery("Product 42", "Description sku42", "Category 2"), Product.class, stats), "name_category", 1),
+                new Shape("products by text", () -> queryCoverageVerifier.explain(Brain.getPageQuery(Brain.getProductTextQuery("sku42"), PageRequest.of(0, 20)), Product.class, stats), "Product_TextIndex", 1),
+                new Shape("products by category", () -> queryCoverageVerifier.explain(Brain.getPageQuery(Brain.getProductSearchQuery(null, new CatalogFilter("Category 2", 100.0, 1500.0, true), SearchMode.TEXT), PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "product_id"))), Product.class, stats), "category_browse", 1.1),
+                new Shape("products by category and price", () -> queryCoverageVerifier.explain(Brain.getPageQuery(Brain.getProductSearchQuery(null, new CatalogFilter("Category 2", 100.0, 1500.0, false), SearchMode.TEXT), PageRequest.of(0, 20, Sort.by("price"))), Product.class, stats), "category_price", 1.1),
+                new Shape("products by price", () -> queryCoverageVerifier.explain(Brain.getPageQuery(Brain.getProductSearchQuery(null, new CatalogFilter(null, 100.0, 1500.0, false), SearchMode.TEXT), PageRequest.of(0, 20, Sort.by("price"))), Product.class, stats), "price_browse", 1.1),
+                // every product is in stock, so the newest first walk of the id index stops after a page
+                new Shape("products in stock", () -> queryCoverageVerifier.explain(Brain.getPageQuery(Brain.getProductSearchQuery(null, new CatalogFilter(null, null, null, true), SearchMode.TEXT), PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "product_id"))), Product.class, stats), "_id_", 1.1),
+                new Shape("products by text in a category", () -> queryCoverageVerifier.explain(Brain.getPageQuery(Brain.getProductSearchQuery("sku42", new CatalogFilter("Category 2", null, null, false), SearchMode.TEXT), PageRequest.of(0, 20)), Product.class, stats), "Product_TextIndex", 1),
+                new Shape("customer cart", () -> queryCoverageVerifier.explain(Brain.getCustomerByIdQuery(42L), ShoppingCart.class, stats), "customer", 1),
+                new Shape("quantity in carts", () -> queryCoverageVerifier.explain(Brain.getCartQuantityAggregation(42L), ShoppingCart.class, stats), "items", 1),
+                new Shape("quantity in pending orders", () -> queryCoverageVerifier.explain(Brain.getPendingOrderQuantityAggregation(42L), Order.class, stats), "items_status", 1),
+                new Shape("customer orders", () -> queryCoverageVerifier.explain(Brain.getOrderSummaryAggregation(customer, List.of(), page), Order.class, stats), "customer_date", 1),
+                // the text part of a filter cannot use an index, so it may read every order of the customer
+                new Shape("customer orders filtered", () -> queryCoverageVerifier.explain(Brain.getOrderSummaryAggregation(new Criteria().andOperator(customer, Brain.getOrderSearchCriteria("user42")), List.of(), page), Order.class, stats), "customer_date", (double) ORDERS / ACCOUNTS),
+                new Shape("closed orders", () -> queryCoverageVerifier.explain(Brain.getClosedOrdersQuery(NOW.minusDays(30), 500), Order.class, stats), "status_closed", 1.1),
+                new Shape("orders awaiting their stock deduction", () -> queryCoverageVerifier.explain(Brain.getUndeductedOrdersQuery(orderIds.subList(0, 20)), Order.class, stats), "_id_", 20),
+                new Shape("top sellers", () -> queryCoverageVerifier.explain(Brain.getTopSellersAggregation(NOW.minusDays(30), 100), Order.class, stats), "status_date", 1.1),
+                new Shape("open fulfilment", () -> queryCoverageVerifier.explain(Brain.getOpenFulfilmentQuery(orderIds.get(20)), FulfilmentTask.class, stats), "order_status", 1),
+                // claiming sorts every claimable task to take the oldest, so the ratio is bound by the queue depth
+                new Shape("claimable fulfilments", () -> queryCoverageVerifier.explain(Brain.getClaimableFulfilmentsQuery(50, NOW.minusMinutes(5)), FulfilmentTask.class, stats), "status_queued", 4),
+                new Shape("claimed fulfilments", () -> queryCoverageVerifier.explain(Brain.getClaimedFulfilmentsQuery(UUID.randomUUID()), FulfilmentTask.class, stats), "claimToken", 1)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("shapes")
+    void usesItsIndex(final Shape shape) {
+        final Document explained = shape.explain().get();
+
+        assertFalse(QueryCoverageVerifier.isCollectionScan(explained), () -> shape.name() + " is planned as a collection scan: " + explained.toJson());
+        final Set<String> indexes = new HashSet<>();
+        collectIndexNames(explained, indexes);
+        assertTrue(indexes.contains(shape.index()), () -> shape.name() + " should use " + shape.index() + " but uses " + indexes);
+
+        final Document executionStats = findExecutionStats(explained);
+        assertNotNull(executionStats, () -> "No execution stats for " + shape.name());
+        final long examined = ((Number) executionStats.get("totalDocsExamined")).longValue();
+        final long returned = ((Number) executionStats.get("nReturned")).longValue();
+        assertTrue(examined <= shape.maxRatio() * Math.max(returned, 1),
+                () -> "%s examined %d documents to return %d".formatted(shape.name(), examined, returned));
+    }
+
+    @Test
+    void stockOfAnOrderIsDeductedOnce() {
+        final ShoppingCart shoppingCart = new ShoppingCart();
+        shoppingCart.setId(UUID.randomUUID());
+        shoppingCart.setCustomer(new ShoppingCart.Customer(42L, "user42@example.com"));
+        shoppingCart.getItems().add(new ShoppingCart.Item((long) PRODUCTS - 1, "Product " + (PRODUCTS - 1), 3, 10.0));
+        final Order order = new Order(UUID.randomUUID(), shoppingCart, 30.0, OrderStatus.COMPLETED, NOW, NOW, false);
+        final Order other = new Order(UUID.randomUUID(), shoppingCart, 30.0, OrderStatus.COMPLETED, NOW, NOW, false);
+
+        for (Order deducting : List.of(order, order, other)) {
+            mongoTemplate.getCollection(Product.collection).bulkWrite(Brain.getStockDeductionUpdates(deducting));
+        }
+
+        assertEquals(94, mongoTemplate.findById((long) PRODUCTS - 1, Product.class).getStockQuantity());
+    }
+
+    @Test
+    void startupCheckFindsNoCollectionScans() {
+        assertDoesNotThrow(() -> queryCoverageVerifier.verify(CoverageCheck.FAIL));
+    }
+
+    private static void collectIndexNames(final Object explained, final Set<String> indexes) {
+        if (explained instanceof Document document) {
+            if (document.get("indexName") instanceof String indexName) {
+                indexes.add(indexName);
+            }
+            document.forEach((key, value) -> {
+                if (!key.equals("rejectedPlans")) {
+                    collectIndexNames(value, indexes);
+                }
+            });
+        } else if (explained instanceof List<?> list) {
+            list.forEach(item -> collectIndexNames(item, indexes));
+        }
+    }
+
+    private static Document findExecutionStats(final Object explained) {
+        if (explained instanceof Document document) {
+            if (document.get("executionStats") instanceof Document executionStats) {
+                return executionStats;
+            }
+            for (Object value : document.values()) {
+                final Document executionStats = findExecutionStats(value);
+                if (executionStats != null) {
+                    return executionStats;
+                }
+            }
+        } else if (explained instanceof List<?> list) {
+            for (Object item : list) {
+                final Document executionStats = findExecutionStats(item);
+                if (executionStats != null) {
+                    return executionStats;
+                }
+            }
+        }
+        return null;
+    }
+
+}
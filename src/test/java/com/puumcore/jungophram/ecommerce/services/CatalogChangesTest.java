@@ -0,0 +1,138 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.configs.CacheConfig;
+import com.puumcore.jungophram.ecommerce.configs.CatalogSearchConfig;
+import com.puumcore.jungophram.ecommerce.configs.CatalogSuggestConfig;
+import com.puumcore.jungophram.ecommerce.models.constants.SearchMode;
+import com.puumcore.jungophram.ecommerce.models.objects.Suggestion;
+import com.puumcore.jungophram.ecommerce.repositories.ProductRepo;
+import com.puumcore.jungophram.ecommerce.repositories.StockOps;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two replicas sharing a channel, where what one publishes is handed to both the way Redis delivers it
+ */
+class CatalogChangesTest {
+
+    private static final String CHANNEL = "catalog:changes";
+
+    private final StockOps stockOps = mock(StockOps.class);
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final List<CatalogChanges> replicas = new ArrayList<>();
+    private CatalogIndexService origin;
+    private CatalogIndexService other;
+    private CatalogSuggestService originSuggestions;
+    private CatalogSuggestService otherSuggestions;
+
+    @BeforeEach
+    void setUp() {
+        final CatalogSearchConfig searchConfig = new CatalogSearchConfig();
+        searchConfig.setMode(SearchMode.INDEX);
+        final CacheConfig cacheConfig = new CacheConfig();
+        cacheConfig.getDistributed().setEnabled(true);
+        cacheConfig.getDistributed().setCatalogChannel(CHANNEL);
+        final CatalogSuggestConfig suggestConfig = new CatalogSuggestConfig();
+        suggestConfig.setEnabled(true);
+        suggestConfig.setTopK(3);
+        final ProductRepo productRepo = mock(ProductRepo.class);
+        when(productRepo.findAfter(anyLong(), any())).thenReturn(List.of());
+
+        origin = new CatalogIndexService(productRepo, stockOps, searchConfig);
+        other = new CatalogIndexService(productRepo, stockOps, searchConfig);
+        originSuggestions = new CatalogSuggestService(productRepo, suggestConfig);
+        otherSuggestions = new CatalogSuggestService(productRepo, suggestConfig);
+        originSuggestions.build();
+        otherSuggestions.build();
+        replicas.add(new CatalogChanges(origin, originSuggestions, stringRedisTemplate, cacheConfig));
+        replicas.add(new CatalogChanges(other, otherSuggestions, stringRedisTemplate, cacheConfig));
+
+        when(stringRedisTemplate.convertAndSend(eq(CHANNEL), anyString())).thenAnswer(invocation -> {
+            final byte[] body = invocation.getArgument(1, String.class).getBytes(StandardCharsets.UTF_8);
+            replicas.forEach(replica -> replica.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body), null));
+            return 2L;
+        });
+        when(stockOps.getProducts(anyList())).thenAnswer(invocation -> Optional.of(invocation.<List<Long>>getArgument(0).stream()
+                .map(id -> product(id, "Product " + id))
+                .toList()));
+    }
+
+    private static Product product(final long id, final String name) {
+        Product product = new Product(name, "Description of " + name, 10.0, 5, "General");
+        product.setProduct_id(id);
+        return product;
+    }
+
+    private static List<Long> search(final CatalogIndexService catalogIndexService, final String param) {
+        return catalogIndexService.search(param, PageRequest.of(0, 20))
+                .map(paged -> paged.getData().stream().map(Product::getProduct_id).toList())
+                .orElse(List.of());
+    }
+
+    private static List<Long> suggest(final CatalogSuggestService catalogSuggestService, final String prefix) {
+        return catalogSuggestService.suggest(prefix).stream().map(Suggestion::productId).toList();
+    }
+
+    @Test
+    void everyReplicaIndexesAChange() {
+        replicas.get(0).added(product(1L, "Panadol"));
+        replicas.get(0).added(product(2L, "Amoxil"));
+
+        assertEquals(List.of(1L), search(origin, "panadol"));
+        assertEquals(List.of(1L), search(other, "panadol"));
+
+        replicas.get(1).replaced(product(1L, "Panadol"), product(1L, "Paracetamol"));
+
+        assertTrue(search(origin, "panadol").isEmpty());
+        assertEquals(List.of(1L), search(origin, "paracetamol"));
+        assertEquals(List.of(1L), search(other, "paracetamol"));
+
+        replicas.get(0).removed(product(2L, "Amoxil"));
+
+        assertTrue(search(origin, "amoxil").isEmpty());
+        assertTrue(search(other, "amoxil").isEmpty());
+    }
+
+    @Test
+    void everyReplicaSuggestsAChange() {
+        replicas.get(0).added(product(1L, "Panadol"));
+        replicas.get(0).added(product(2L, "Amoxil"));
+
+        assertEquals(List.of(1L), suggest(otherSuggestions, "pan"));
+
+        replicas.get(1).replaced(product(1L, "Panadol"), product(1L, "Paracetamol"));
+
+        assertTrue(suggest(originSuggestions, "pan").isEmpty());
+        assertEquals(List.of(1L), suggest(originSuggestions, "para"));
+        assertEquals(List.of(1L), suggest(otherSuggestions, "para"));
+
+        replicas.get(0).removed(product(2L, "Amoxil"));
+
+        assertTrue(suggest(otherSuggestions, "amo").isEmpty());
+    }
+
+    @Test
+    void aSingleReplicaDoesNotPublish() {
+        final CacheConfig cacheConfig = new CacheConfig();
+        final CatalogChanges catalogChanges = new CatalogChanges(origin, originSuggestions, stringRedisTemplate, cacheConfig);
+
+        catalogChanges.added(product(1L, "Panadol"));
+
+        assertEquals(List.of(1L), search(origin, "panadol"));
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+}
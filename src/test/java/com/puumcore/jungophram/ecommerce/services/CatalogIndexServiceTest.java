@@ -0,0 +1,132 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.configs.CatalogSearchConfig;
+import com.puumcore.jungophram.ecommerce.models.constants.SearchMode;
+import com.puumcore.jungophram.ecommerce.models.objects.Paged;
+import com.puumcore.jungophram.ecommerce.repositories.ProductRepo;
+import com.puumcore.jungophram.ecommerce.repositories.StockOps;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import com.puumcore.jungophram.ecommerce.services.CatalogIndexService.Postings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CatalogIndexServiceTest {
+
+    private final ProductRepo productRepo = mock(ProductRepo.class);
+    private final StockOps stockOps = mock(StockOps.class);
+    private CatalogIndexService catalogIndexService;
+
+    @BeforeEach
+    void setUp() {
+        final CatalogSearchConfig config = new CatalogSearchConfig();
+        config.setMode(SearchMode.INDEX);
+        catalogIndexService = new CatalogIndexService(productRepo, stockOps, config);
+        when(stockOps.getProducts(anyList())).thenAnswer(invocation -> Optional.of(invocation.<List<Long>>getArgument(0).stream()
+                .map(id -> product(id, "Product " + id))
+                .toList()));
+    }
+
+    private static Product product(final long id, final String name) {
+        Product product = new Product(name, "Description of " + name, 10.0, 5, "General");
+        product.setProduct_id(id);
+        return product;
+    }
+
+    private static Postings postings(final long... ids) {
+        final Postings postings = new Postings();
+        for (long id : ids) {
+            postings.add(id);
+        }
+        return postings;
+    }
+
+    @Test
+    void emptyPostingsDecodeToNothing() {
+        assertArrayEquals(new long[0], new Postings().decode());
+
+        final Postings postings = postings(7);
+        assertTrue(postings.remove(7));
+        assertArrayEquals(new long[0], postings.decode());
+    }
+
+    @Test
+    void postingsRoundTripAcrossVarintWidths() {
+        // deltas of one byte, the first two byte delta, a three byte delta and one of several bytes
+        final long[] ids = {1, 2, 129, 16_513, 1L << 40};
+
+        final Postings postings = postings(ids);
+        postings.trim();
+
+        assertArrayEquals(ids, postings.decode());
+    }
+
+    @Test
+    void postingsKeepLargeGaps() {
+        assertArrayEquals(new long[]{1, Long.MAX_VALUE}, postings(1, Long.MAX_VALUE).decode());
+        assertArrayEquals(new long[]{(1L << 56) - 1}, postings((1L << 56) - 1).decode());
+    }
+
+    @Test
+    void postingsStaySortedAndDistinct() {
+        final Postings postings = postings(50, 10, 30, 10, 50);
+        assertArrayEquals(new long[]{10, 30, 50}, postings.decode());
+
+        assertFalse(postings.remove(30));
+        assertFalse(postings.remove(99));
+        assertArrayEquals(new long[]{10, 50}, postings.decode());
+
+        postings.trim();
+        postings.add(60);
+        postings.add(20);
+        assertArrayEquals(new long[]{10, 20, 50, 60}, postings.decode());
+    }
+
+    @Test
+    void postingsGrowPastTheirInitialCapacity() {
+        final long[] ids = LongStream.rangeClosed(1, 5_000).map(i -> i * 1_000).toArray();
+
+        assertArrayEquals(ids, postings(ids).decode());
+    }
+
+    @Test
+    void tokenizesUnicodeWords() {
+        assertEquals(List.of("crème", "brûlée", "500ml"), List.copyOf(CatalogIndexService.tokenize("Crème Brûlée — 500ml")));
+        assertEquals(List.of("парацетамол", "500"), List.copyOf(CatalogIndexService.tokenize("ПАРАЦЕТАМОЛ 500")));
+        assertTrue(CatalogIndexService.tokenize("  ").isEmpty());
+    }
+
+    @Test
+    void keepsChangesMadeWhileBuilding() {
+        when(productRepo.findAfter(anyLong(), any())).thenAnswer(invocation -> {
+            if (invocation.<Long>getArgument(0) > 0) {
+                return List.of();
+            }
+            // a product is created and another renamed while the catalog is being read
+            catalogIndexService.add(product(3, "Zinc tablets"));
+            catalogIndexService.replace(product(2, "Aspirin"), product(2, "Vitamin C"));
+            return List.of(product(1, "Paracetamol"), product(2, "Aspirin"));
+        });
+
+        catalogIndexService.build();
+
+        assertTrue(catalogIndexService.isReady());
+        assertEquals(List.of(3L), ids(catalogIndexService.search("zinc", PageRequest.of(0, 10))));
+        assertEquals(List.of(2L), ids(catalogIndexService.search("vitamin", PageRequest.of(0, 10))));
+        assertTrue(catalogIndexService.search("aspirin", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(List.of(1L), ids(catalogIndexService.search("paracetamol", PageRequest.of(0, 10))));
+    }
+
+    private static List<Long> ids(final Optional<Paged<Product>> optionalPaged) {
+        return optionalPaged.orElseThrow().getData().stream().map(Product::getProduct_id).toList();
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.configs.CatalogSuggestConfig;
+import com.puumcore.jungophram.ecommerce.models.objects.Suggestion;
+import com.puumcore.jungophram.ecommerce.repositories.ProductRepo;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CatalogSuggestServiceTest {
+
+    private final ProductRepo productRepo = mock(ProductRepo.class);
+    private CatalogSuggestService catalogSuggestService;
+
+    @BeforeEach
+    void setUp() {
+        final CatalogSuggestConfig config = new CatalogSuggestConfig();
+        config.setEnabled(true);
+        config.setTopK(3);
+        catalogSuggestService = new CatalogSuggestService(productRepo, config);
+    }
+
+    private static Product product(final long id, final String name, final String category) {
+        Product product = new Product(name, "Description of " + name, 10.0, 5, category);
+        product.setProduct_id(id);
+        return product;
+    }
+
+    private void build(final Product... products) {
+        when(productRepo.findAfter(anyLong(), any())).thenReturn(List.of(products));
+        catalogSuggestService.build();
+    }
+
+    private List<Long> suggest(final String prefix) {
+        return catalogSuggestService.suggest(prefix).stream().map(Suggestion::productId).toList();
+    }
+
+    @Test
+    void singleCharacterPrefixesReturnTheNewestFirst() {
+        build(product(1, "Paracetamol 500mg", "Analgesics"),
+                product(2, "Panadol Extra", "Analgesics"),
+                product(3, "Ibuprofen", "Pain relief"));
+
+        assertEquals(List.of(3L, 2L, 1L), suggest("p"));
+        assertEquals(List.of(2L), suggest("pan"));
+        assertEquals(List.of(1L), suggest("par"));
+        assertEquals(List.of(2L, 1L), suggest("A"));
+    }
+
+    @Test
+    void matchesAnyWordOfANameOrCategory() {
+        build(product(1, "Paracetamol 500mg", "Analgesics"), product(2, "Panadol  Extra", "Analgesics"));
+
+        assertEquals(List.of(2L), suggest("extra"));
+        assertEquals(List.of(2L), suggest("panadol e"));
+        assertEquals(List.of(1L), suggest("500"));
+        assertEquals(List.of(), suggest("parx"));
+        assertEquals(List.of(), suggest("paracetamol 500mgx"));
+        assertEquals(List.of(), suggest(" "));
+    }
+
+    @Test
+    void matchesUnicodePrefixes() {
+        build(product(1, "Crème hydratante", "Soins"), product(2, "Creme brulee", "Desserts"), product(3, "Ацетилсалициловая кислота", "Анальгетики"));
+
+        assertEquals(List.of(1L), suggest("CRÈ"));
+        assertEquals(List.of(2L), suggest("cre"));
+        assertEquals(List.of(2L, 1L), suggest("cr"));
+        assertEquals(List.of(3L), suggest("кисл"));
+        assertEquals(List.of(3L), suggest("А"));
+    }
+
+    @Test
+    void keepsTheTopKNewest() {
+        build(LongStream.rangeClosed(1, 5).mapToObj(id -> product(id, "Vitamin " + id, "Supplements")).toArray(Product[]::new));
+
+        assertEquals(List.of(5L, 4L, 3L), suggest("vit"));
+
+        catalogSuggestService.remove(product(5, "Vitamin 5", "Supplements"));
+        catalogSuggestService.remove(product(4, "Vitamin 4", "Supplements"));
+
+        assertEquals(List.of(3L, 2L, 1L), suggest("vit"));
+    }
+
+    @Test
+    void followsRenamesAndRemovals() {
+        build(product(1, "Aspirin", "Analgesics"), product(2, "Aspartame", "Sweeteners"));
+
+        catalogSuggestService.replace(product(1, "Aspirin", "Analgesics"), product(1, "Zinc", "Minerals"));
+
+        assertEquals(List.of(2L), suggest("asp"));
+        assertEquals(List.of(1L), suggest("z"));
+        assertEquals(List.of(), suggest("aspi"));
+
+        catalogSuggestService.remove(product(2, "Aspartame", "Sweeteners"));
+
+        assertEquals(List.of(), suggest("a"));
+        assertEquals(List.of(1L), suggest("m"));
+    }
+
+    @Test
+    void keepsChangesMadeWhileBuilding() {
+        when(productRepo.findAfter(anyLong(), any())).thenAnswer(invocation -> {
+            // a product is created and another removed while the catalog is being read
+            catalogSuggestService.add(product(3, "Zinc", "Minerals"));
+            catalogSuggestService.remove(product(2, "Aspirin", "Analgesics"));
+            return List.of(product(1, "Paracetamol", "Analgesics"), product(2, "Aspirin", "Analgesics"));
+        });
+
+        catalogSuggestService.build();
+
+        assertTrue(catalogSuggestService.isReady());
+        assertEquals(List.of(3L), suggest("zi"));
+        assertEquals(List.of(), suggest("asp"));
+        assertEquals(List.of(1L), suggest("ana"));
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.puumcore.jungophram.ecommerce.services;
+
+import com.puumcore.jungophram.ecommerce.configs.OrderFulfilmentConfig;
+import com.puumcore.jungophram.ecommerce.models.constants.FulfilmentStatus;
+import com.puumcore.jungophram.ecommerce.models.constants.OrderStatus;
+import com.puumcore.jungophram.ecommerce.repositories.FulfilmentOps;
+import com.puumcore.jungophram.ecommerce.repositories.OrdersOps;
+import com.puumcore.jungophram.ecommerce.repositories.StockOps;
+import com.puumcore.jungophram.ecommerce.repositories.entities.FulfilmentTask;
+import com.puumcore.jungophram.ecommerce.repositories.entities.Order;
+import com.puumcore.jungophram.ecommerce.repositories.entities.ShoppingCart;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hands the same order to the fulfilment more than once, the way duplicate queueing and a claim that timed out do, and
+ * checks its stock is deducted once. The order status and its deduction marker behave like the conditional writes of
+ * the repository.
+ */
+class FulfilmentServiceTest {
+
+    private final FulfilmentOps fulfilmentOps = mock(FulfilmentOps.class);
+    private final OrdersOps ordersOps = mock(OrdersOps.class);
+    private final StockOps stockOps = mock(StockOps.class);
+    private final ExecutorService workers = Executors.newFixedThreadPool(2);
+
+    private final UUID orderId = UUID.randomUUID();
+    private final ShoppingCart cart = new ShoppingCart(UUID.randomUUID(), new ShoppingCart.Customer(42L, "user42@example.com"),
+            new ArrayList<>(List.of(new ShoppingCart.Item(7L, "Product 7", 2, 20.0))));
+    private OrderStatus orderStatus = OrderStatus.PENDING;
+    private Boolean stockDeducted;
+    private final AtomicInteger deductions = new AtomicInteger();
+    private final AtomicBoolean failDeduction = new AtomicBoolean();
+    private FulfilmentService fulfilmentService;
+
+    @BeforeEach
+    void setUp() {
+        final OrderFulfilmentConfig config = new OrderFulfilmentConfig();
+        config.setAsync(false);
+        fulfilmentService = new FulfilmentService(fulfilmentOps, ordersOps, stockOps, config);
+
+        when(ordersOps.updateStatus(eq(orderId), any(), any())).thenAnswer(invocation -> {
+            synchronized (this) {
+                if (orderStatus != invocation.getArgument(1)) {
+                    return Optional.empty();
+                }
+                orderStatus = invocation.getArgument(2);
+                stockDeducted = orderStatus == OrderStatus.COMPLETED ? false : null;
+                return Optional.of(order());
+            }
+        });
+        when(ordersOps.getOrder(orderId)).thenAnswer(invocation -> {
+            synchronized (this) {
+                return Optional.of(order());
+            }
+        });
+        when(stockOps.deductStock(anyCollection())).thenAnswer(invocation -> {
+            synchronized (this) {
+                if (order().isAwaitingStockDeduction() && !failDeduction.get()) {
+                    deductions.incrementAndGet();
+                    stockDeducted = true;
+                }
+                return Boolean.TRUE.equals(stockDeducted) ? Set.of(orderId) : Set.of();
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    private Order order() {
+        return new Order(orderId, cart, 20.0, orderStatus, LocalDateTime.now(), null, stockDeducted);
+    }
+
+    private FulfilmentTask task() {
+        FulfilmentTask fulfilmentTask = new FulfilmentTask();
+        fulfilmentTask.setId(UUID.randomUUID());
+        fulfilmentTask.setOrderId(orderId);
+        fulfilmentTask.setStatus(FulfilmentStatus.PROCESSING);
+        return fulfilmentTask;
+    }
+
+    @Test
+    void duplicateTasksOfAnOrderDeductItsStockOnce() {
+        final FulfilmentTask first = task();
+        final FulfilmentTask second = task();
+
+        fulfilmentService.fulfil(List.of(first));
+        fulfilmentService.fulfil(List.of(second));
+
+        assertEquals(1, deductions.get());
+        verify(fulfilmentOps).closeFulfilment(first.getId(), FulfilmentStatus.DONE, null);
+        verify(fulfilmentOps).closeFulfilment(eq(second.getId()), eq(FulfilmentStatus.FAILED), anyString());
+        assertEquals(OrderStatus.COMPLETED, orderStatus);
+    }
+
+    @Test
+    void duplicateTasksInOneBatchDeductItsStockOnce() {
+        final FulfilmentTask first = task();
+        final FulfilmentTask second = task();
+
+        fulfilmentService.fulfil(List.of(first, second));
+
+        assertEquals(1, deductions.get());
+        verify(stockOps, times(1)).deductStock(anyCollection());
+        verify(fulfilmentOps).closeFulfilment(first.getId(), FulfilmentStatus.DONE, null);
+        verify(fulfilmentOps).closeFulfilment(eq(second.getId()), eq(FulfilmentStatus.FAILED), anyString());
+    }
+
+    @Test
+    void staleReclaimDoesNotDeductAgain() throws Exception {
+        final FulfilmentTask fulfilmentTask = task();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        // the worker that timed out and the worker that claimed the task again run it together
+        final List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            runs.add(workers.submit(() -> {
+                start.await();
+                fulfilmentService.fulfil(List.of(fulfilmentTask));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> run : runs) {
+            run.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, deductions.get());
+        verify(fulfilmentOps, atLeastOnce()).closeFulfilment(fulfilmentTask.getId(), FulfilmentStatus.DONE, null);
+    }
+
+    @Test
+    void failedDeductionKeepsTheTaskOpenForTheNextClaim() {
+        failDeduction.set(true);
+        final FulfilmentTask fulfilmentTask = task();
+
+        fulfilmentService.fulfil(List.of(fulfilmentTask));
+
+        assertEquals(OrderStatus.COMPLETED, orderStatus);
+        assertEquals(0, deductions.get());
+        verify(fulfilmentOps, never()).closeFulfilment(eq(fulfilmentTask.getId()), any(), any());
+
+        // the claim times out and the task is claimed again
+        failDeduction.set(false);
+        fulfilmentService.fulfil(List.of(fulfilmentTask));
+
+        assertEquals(1, deductions.get());
+        verify(fulfilmentOps).closeFulfilment(fulfilmentTask.getId(), FulfilmentStatus.DONE, null);
+        verify(ordersOps, never()).updateStatus(orderId, OrderStatus.COMPLETED, OrderStatus.PENDING);
+    }
+
+}